@@ -3,7 +3,10 @@ package com.insurancemegacorp.ragmon;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import com.insurancemegacorp.ragmon.config.RagmonProperties;
+import com.insurancemegacorp.ragmon.service.EventStore;
 import com.insurancemegacorp.ragmon.service.InstanceRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @SpringBootApplication
 public class RagmonApiApplication {
@@ -12,7 +15,7 @@ public class RagmonApiApplication {
     }
 
     @Bean
-    public InstanceRegistry instanceRegistry() {
-        return new InstanceRegistry();
+    public InstanceRegistry instanceRegistry(RagmonProperties props, EventStore eventStore, MeterRegistry meters) {
+        return new InstanceRegistry(props.getInstances(), eventStore, meters);
     }
 }
@@ -1,12 +1,17 @@
 package com.insurancemegacorp.ragmon.amqp;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.insurancemegacorp.ragmon.config.RagmonProperties;
 import com.insurancemegacorp.ragmon.model.Event;
 import com.insurancemegacorp.ragmon.service.EventStore;
 import com.insurancemegacorp.ragmon.service.InstanceRegistry;
-import java.util.Map;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.core.Message;
@@ -19,149 +24,83 @@ import org.springframework.stereotype.Component;
 public class MonitoringListener {
     private static final Logger log = LoggerFactory.getLogger(MonitoringListener.class);
 
-    private final ObjectMapper objectMapper;
+    private final MonitoringMessageDecoder decoder;
     private final EventStore eventStore;
-    private final RagmonProperties properties;
     private final InstanceRegistry registry;
+    private final Timer decodeService;
+    private final Timer decodeLegacy;
+    private final Timer lagService;
+    private final Timer lagLegacy;
+    private final Counter parseFailures;
+    private final Counter storeFailures;
 
-    public MonitoringListener(ObjectMapper objectMapper, EventStore eventStore, RagmonProperties properties, InstanceRegistry registry) {
-        this.objectMapper = objectMapper;
+    public MonitoringListener(ObjectMapper objectMapper, EventStore eventStore, RagmonProperties properties, InstanceRegistry registry,
+                              MeterRegistry meters) {
+        this.decoder = new MonitoringMessageDecoder(objectMapper.getFactory(), properties.getApps().getDefaultPort());
         this.eventStore = eventStore;
-        this.properties = properties;
         this.registry = registry;
+        this.decodeService = decodeTimer(meters, "service");
+        this.decodeLegacy = decodeTimer(meters, "legacy");
+        this.lagService = lagTimer(meters, "service");
+        this.lagLegacy = lagTimer(meters, "legacy");
+        this.parseFailures = Counter.builder("ragmon.ingest.parse.failures")
+                .description("Monitoring messages that could not be decoded").register(meters);
+        this.storeFailures = Counter.builder("ragmon.ingest.store.failures")
+                .description("Decoded events lost because the store rejected their batch").register(meters);
     }
 
-    @RabbitListener(queues = "#{monitorQueue.name}")
-    public void handle(Message message) {
-        try {
-            byte[] body = message.getBody();
-            JsonNode node = objectMapper.readTree(body);
-            
-            // Debug logging to see what messages we're receiving
-            String messageText = new String(body);
-            log.info("📨 RECEIVED AMQP MESSAGE: {}", messageText);
-            Event event = new Event();
-
-            if (node.has("meta") && node.get("meta").has("service")) {
-                JsonNode meta = node.get("meta");
-                event.setApp(text(meta, "service"));
-                event.setStage(text(meta, "processingStage") != null ? text(meta, "processingStage") : 
-                              text(meta, "processingState") != null ? text(meta, "processingState") : text(meta, "inputMode"));
-                if (node.has("event")) {
-                    event.setEvent(text(node, "event"));
-                }
-                event.setInstanceId(text(node, "instanceId"));
-                event.setStatus(text(node, "status"));
-                event.setMessage(text(node, "lastError"));
-                long ts = node.has("timestamp") ? parseTimestamp(node.get("timestamp")) : System.currentTimeMillis();
-                event.setTimestamp(ts);
-                event.setUptime(text(node, "uptime"));
-                event.setHostname(text(node, "hostname"));
-                event.setPublicHostname(text(node, "publicHostname"));
-                event.setCurrentFile(text(node, "currentFile"));
-                if (node.has("filesProcessed")) event.setFilesProcessed(node.get("filesProcessed").asLong());
-                if (node.has("filesTotal")) event.setFilesTotal(node.get("filesTotal").asLong());
-                if (node.has("totalChunks")) event.setTotalChunks(node.get("totalChunks").asLong());
-                if (node.has("processedChunks")) event.setProcessedChunks(node.get("processedChunks").asLong());
-                if (node.has("processingRate")) event.setProcessingRate(node.get("processingRate").asDouble());
-                if (node.has("errorCount")) event.setErrorCount(node.get("errorCount").asLong());
-                if (node.has("memoryUsedMB")) event.setMemoryUsedMB(node.get("memoryUsedMB").asDouble());
-                if (node.has("pendingMessages") && !node.get("pendingMessages").isNull()) event.setPendingMessages(node.get("pendingMessages").asLong());
-                if (node.has("filename") && !node.get("filename").isNull()) event.setFilename(node.get("filename").asText());
-
-                // Check if URL is already provided in the message
-                String providedUrl = text(node, "url");
-                if (providedUrl == null) providedUrl = text(node, "publicUrl");
-                if (providedUrl == null) providedUrl = text(node, "internalUrl");
-                
-                if (providedUrl != null && !providedUrl.isBlank()) {
-                    log.info("✅ USING PROVIDED URL: '{}'", providedUrl);
-                    event.setUrl(providedUrl);
-                } else if (event.getUrl() == null) {
-                    log.info("🔨 CONSTRUCTING URL FROM HOSTNAME...");
-                    String host = event.getPublicHostname() != null ? event.getPublicHostname() : event.getHostname();
-                    log.info("🏠 HOST INFO - publicHostname: '{}', hostname: '{}', selected: '{}'", 
-                        event.getPublicHostname(), event.getHostname(), host);
-                    
-                    if (host != null && !host.isBlank()) {
-                        String val = host;
-                        if (!val.startsWith("http://") && !val.startsWith("https://")) {
-                            val = "http://" + val;
-                        }
-                        // If no explicit port present, append default from config
-                        String withoutScheme = val.replaceFirst("^[a-zA-Z]+://", "");
-                        log.info("🔍 URL CONSTRUCTION - original host: '{}', withoutScheme: '{}', hasPort: {}", 
-                            host, withoutScheme, withoutScheme.contains(":"));
-                        
-                        if (!withoutScheme.contains(":")) {
-                            int port = properties.getApps().getDefaultPort();
-                            log.info("⚙️  ADDING DEFAULT PORT: {} (from config)", port);
-                            if (!val.endsWith("/")) {
-                                val = val + ":" + port;
-                            } else {
-                                val = val.substring(0, val.length()-1) + ":" + port;
-                            }
-                        }
-                        log.info("🔗 FINAL URL: '{}'", val);
-                        event.setUrl(val);
-                    }
-                }
-
-                // Update instance registry (enrich meta with normalized directory hint if present)
-                String instanceId = text(node, "instanceId");
-                boolean isHeartbeat = "INIT".equalsIgnoreCase(event.getEvent()) || "HEARTBEAT".equalsIgnoreCase(event.getEvent());
-                Long bootEpoch = node.has("bootEpoch") && node.get("bootEpoch").isNumber() ? node.get("bootEpoch").asLong() : null;
-                String version = text(node, "version");
-
-                java.util.Map<String, Object> metaMap = new java.util.HashMap<>(objectMapper.convertValue(meta, Map.class));
-                // Normalize potential directory hints into a common key 'localStoragePath'
-                Object dir = null;
-                if (metaMap.containsKey("local-storage-path")) dir = metaMap.get("local-storage-path");
-                if (dir == null && metaMap.containsKey("localStoragePath")) dir = metaMap.get("localStoragePath");
-                if (dir == null && metaMap.containsKey("storagePath")) dir = metaMap.get("storagePath");
-                if (dir == null) {
-                    // Also look for top-level hints on the message just in case apps emit config outside of meta
-                    String topLocal1 = text(node, "local-storage-path");
-                    String topLocal2 = text(node, "localStoragePath");
-                    String topLocal3 = text(node, "storagePath");
-                    dir = topLocal1 != null ? topLocal1 : (topLocal2 != null ? topLocal2 : topLocal3);
-                }
-                if (dir instanceof String && !((String) dir).isBlank()) {
-                    metaMap.put("localStoragePath", dir);
-                }
+    private static Timer decodeTimer(MeterRegistry meters, String format) {
+        return Timer.builder("ragmon.ingest.decode").description("Time to decode one monitoring message")
+                .tag("format", format).register(meters);
+    }
 
-                registry.updateFromMessage(event.getApp(), instanceId, event.getUrl(), event.getStatus(), isHeartbeat, bootEpoch, version, metaMap);
-            } else {
-                event.setApp(text(node, "app"));
-                event.setStage(text(node, "stage"));
-                if (node.has("event")) {
-                    event.setEvent(text(node, "event"));
-                }
-                event.setDocId(text(node, "docId"));
-                long ts = node.has("timestamp") ? node.get("timestamp").asLong() : System.currentTimeMillis();
-                event.setTimestamp(ts);
-                if (node.has("latencyMs")) event.setLatencyMs(node.get("latencyMs").asLong());
-                event.setStatus(text(node, "status"));
-                event.setMessage(text(node, "message"));
-                if (node.has("url")) event.setUrl(node.get("url").asText());
-            }
+    /** Receive time minus the event's own timestamp: broker transit plus publisher clock skew. */
+    private static Timer lagTimer(MeterRegistry meters, String format) {
+        return Timer.builder("ragmon.ingest.lag").description("Time from an event's timestamp until ragmon received it")
+                .tag("format", format).register(meters);
+    }
 
-            eventStore.add(event);
+    @RabbitListener(queues = "#{monitorQueue.name}")
+    public void handleBatch(List<Message> messages) {
+        List<Event> events = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            Event event = ingest(message);
+            if (event != null) events.add(event);
+        }
+        // Swallowed like decode failures: a rethrow would have the container redeliver the whole batch and
+        // re-apply its registry updates, possibly forever
+        try {
+            eventStore.addAll(events);
         } catch (Exception e) {
-            log.warn("Failed to parse monitoring message", e);
+            storeFailures.increment(events.size());
+            log.warn("Failed to store a batch of {} monitoring events", events.size(), e);
         }
     }
 
-    private static long parseTimestamp(JsonNode node) {
-        if (node.isNumber()) return node.asLong();
+    private Event ingest(Message message) {
+        MonitoringMessageDecoder.Decoded decoded = null;
         try {
-            return java.time.Instant.parse(node.asText()).toEpochMilli();
+            byte[] body = message.getBody();
+            if (log.isDebugEnabled()) {
+                log.debug("📨 RECEIVED AMQP MESSAGE: {}", new String(body, StandardCharsets.UTF_8));
+            }
+            long receivedAt = System.currentTimeMillis();
+            long start = System.nanoTime();
+            decoded = decoder.decode(body);
+            (decoded.serviceFormat() ? decodeService : decodeLegacy).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            Event event = decoded.event();
+            // Publishers running slightly ahead of our clock would give negative lag
+            (decoded.serviceFormat() ? lagService : lagLegacy)
+                    .record(Math.max(0, receivedAt - event.getTimestamp()), TimeUnit.MILLISECONDS);
+            if (decoded.serviceFormat()) {
+                registry.updateFromMessage(event.getApp(), decoded.instanceId(), event.getUrl(), event.getStatus(),
+                        decoded.heartbeat(), decoded.bootEpoch(), decoded.version(), decoded.meta());
+            }
+            return event;
         } catch (Exception e) {
-            return System.currentTimeMillis();
+            if (decoded == null) parseFailures.increment();
+            log.warn("Failed to parse monitoring message", e);
+            return null;
         }
     }
-
-    private static String text(JsonNode n, String field) {
-        return n != null && n.has(field) ? n.get(field).asText() : null;
-    }
 }
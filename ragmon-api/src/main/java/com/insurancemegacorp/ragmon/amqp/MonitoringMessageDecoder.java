@@ -0,0 +1,275 @@
+package com.insurancemegacorp.ragmon.amqp;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.insurancemegacorp.ragmon.model.Event;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single-pass decoder for monitoring messages built on Jackson's streaming {@link JsonParser}.
+ * Supports both the {@code meta.service} format and the legacy {@code app}/{@code stage} format
+ * without materializing a {@code JsonNode} tree. Field order in the payload does not matter:
+ * raw values are collected first and the format is decided once the object has been read.
+ */
+public class MonitoringMessageDecoder {
+    private static final Logger log = LoggerFactory.getLogger(MonitoringMessageDecoder.class);
+
+    /** Decoded message: the event to store plus, for the {@code meta.service} format, the registry update. */
+    public record Decoded(Event event, boolean serviceFormat, String instanceId, boolean heartbeat,
+                          Long bootEpoch, String version, Map<String, Object> meta) {}
+
+    private final JsonFactory jsonFactory;
+    private final int defaultPort;
+
+    public MonitoringMessageDecoder(JsonFactory jsonFactory, int defaultPort) {
+        this.jsonFactory = jsonFactory;
+        this.defaultPort = defaultPort;
+    }
+
+    public Decoded decode(byte[] body) throws IOException {
+        Raw r = new Raw();
+        try (JsonParser p = jsonFactory.createParser(body)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(p, "Monitoring message must be a JSON object");
+            }
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String name = p.currentName();
+                JsonToken t = p.nextToken();
+                switch (name) {
+                    case "meta" -> readMeta(p, t, r);
+                    case "event" -> r.event = text(p, t);
+                    case "instanceId" -> r.instanceId = text(p, t);
+                    case "status" -> r.status = text(p, t);
+                    case "timestamp" -> r.timestamp = timestamp(p, t);
+                    case "lastError" -> r.lastError = text(p, t);
+                    case "message" -> r.message = text(p, t);
+                    case "uptime" -> r.uptime = text(p, t);
+                    case "hostname" -> r.hostname = text(p, t);
+                    case "publicHostname" -> r.publicHostname = text(p, t);
+                    case "currentFile" -> r.currentFile = text(p, t);
+                    case "filename" -> r.filename = text(p, t);
+                    case "url" -> r.url = text(p, t);
+                    case "publicUrl" -> r.publicUrl = text(p, t);
+                    case "internalUrl" -> r.internalUrl = text(p, t);
+                    case "version" -> r.version = text(p, t);
+                    case "app" -> r.app = text(p, t);
+                    case "stage" -> r.stage = text(p, t);
+                    case "docId" -> r.docId = text(p, t);
+                    case "local-storage-path" -> r.topLocalStoragePath1 = text(p, t);
+                    case "localStoragePath" -> r.topLocalStoragePath2 = text(p, t);
+                    case "storagePath" -> r.topLocalStoragePath3 = text(p, t);
+                    case "filesProcessed" -> r.filesProcessed = longValue(p, t);
+                    case "filesTotal" -> r.filesTotal = longValue(p, t);
+                    case "totalChunks" -> r.totalChunks = longValue(p, t);
+                    case "processedChunks" -> r.processedChunks = longValue(p, t);
+                    case "errorCount" -> r.errorCount = longValue(p, t);
+                    case "pendingMessages" -> r.pendingMessages = longValue(p, t);
+                    case "latencyMs" -> r.latencyMs = longValue(p, t);
+                    case "bootEpoch" -> r.bootEpoch = t.isNumeric() ? p.getValueAsLong() : null;
+                    case "processingRate" -> r.processingRate = doubleValue(p, t);
+                    case "memoryUsedMB" -> r.memoryUsedMB = doubleValue(p, t);
+                    default -> p.skipChildren();
+                }
+            }
+        }
+        return r.serviceFormat ? toServiceFormat(r) : toLegacyFormat(r);
+    }
+
+    private Decoded toServiceFormat(Raw r) {
+        Event event = new Event();
+        event.setApp(r.service);
+        event.setStage(r.processingStage != null ? r.processingStage
+                : r.processingState != null ? r.processingState : r.inputMode);
+        event.setEvent(r.event);
+        event.setInstanceId(r.instanceId);
+        event.setStatus(r.status);
+        event.setMessage(r.lastError);
+        event.setTimestamp(r.timestamp != null ? r.timestamp : System.currentTimeMillis());
+        event.setUptime(r.uptime);
+        event.setHostname(r.hostname);
+        event.setPublicHostname(r.publicHostname);
+        event.setCurrentFile(r.currentFile);
+        event.setFilesProcessed(r.filesProcessed);
+        event.setFilesTotal(r.filesTotal);
+        event.setTotalChunks(r.totalChunks);
+        event.setProcessedChunks(r.processedChunks);
+        event.setProcessingRate(r.processingRate);
+        event.setErrorCount(r.errorCount);
+        event.setMemoryUsedMB(r.memoryUsedMB);
+        event.setPendingMessages(r.pendingMessages);
+        event.setFilename(r.filename);
+        event.setUrl(resolveUrl(r));
+
+        // Normalize potential directory hints into a common key 'localStoragePath'
+        Map<String, Object> meta = r.meta;
+        Object dir = meta.get("local-storage-path");
+        if (dir == null) dir = meta.get("localStoragePath");
+        if (dir == null) dir = meta.get("storagePath");
+        if (dir == null) {
+            // Also look for top-level hints on the message just in case apps emit config outside of meta
+            dir = r.topLocalStoragePath1 != null ? r.topLocalStoragePath1
+                    : (r.topLocalStoragePath2 != null ? r.topLocalStoragePath2 : r.topLocalStoragePath3);
+        }
+        if (dir instanceof String s && !s.isBlank()) {
+            meta.put("localStoragePath", s);
+        }
+
+        boolean isHeartbeat = "INIT".equalsIgnoreCase(r.event) || "HEARTBEAT".equalsIgnoreCase(r.event);
+        return new Decoded(event, true, r.instanceId, isHeartbeat, r.bootEpoch, r.version, meta);
+    }
+
+    private Decoded toLegacyFormat(Raw r) {
+        Event event = new Event();
+        event.setApp(r.app);
+        event.setStage(r.stage);
+        event.setEvent(r.event);
+        event.setDocId(r.docId);
+        event.setTimestamp(r.timestamp != null ? r.timestamp : System.currentTimeMillis());
+        event.setLatencyMs(r.latencyMs);
+        event.setStatus(r.status);
+        event.setMessage(r.message);
+        event.setUrl(r.url);
+        return new Decoded(event, false, r.instanceId, false, null, null, null);
+    }
+
+    private String resolveUrl(Raw r) {
+        // Check if URL is already provided in the message
+        String providedUrl = r.url != null ? r.url : (r.publicUrl != null ? r.publicUrl : r.internalUrl);
+        if (providedUrl != null && !providedUrl.isBlank()) {
+            log.debug("✅ USING PROVIDED URL: '{}'", providedUrl);
+            return providedUrl;
+        }
+        String host = r.publicHostname != null ? r.publicHostname : r.hostname;
+        log.debug("🏠 HOST INFO - publicHostname: '{}', hostname: '{}', selected: '{}'", r.publicHostname, r.hostname, host);
+        if (host == null || host.isBlank()) return null;
+
+        String val = host;
+        if (!val.startsWith("http://") && !val.startsWith("https://")) {
+            val = "http://" + val;
+        }
+        // If no explicit port present, append default from config
+        String withoutScheme = val.replaceFirst("^[a-zA-Z]+://", "");
+        if (!withoutScheme.contains(":")) {
+            if (!val.endsWith("/")) {
+                val = val + ":" + defaultPort;
+            } else {
+                val = val.substring(0, val.length() - 1) + ":" + defaultPort;
+            }
+        }
+        log.debug("🔗 FINAL URL: '{}'", val);
+        return val;
+    }
+
+    private static void readMeta(JsonParser p, JsonToken t, Raw r) throws IOException {
+        if (t != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            return;
+        }
+        Map<String, Object> meta = new LinkedHashMap<>();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            Object value = readValue(p, p.nextToken());
+            meta.put(name, value);
+            switch (name) {
+                case "service" -> {
+                    r.serviceFormat = true;
+                    r.service = asText(value);
+                }
+                case "processingStage" -> r.processingStage = asText(value);
+                case "processingState" -> r.processingState = asText(value);
+                case "inputMode" -> r.inputMode = asText(value);
+                default -> { }
+            }
+        }
+        r.meta = meta;
+    }
+
+    private static Object readValue(JsonParser p, JsonToken t) throws IOException {
+        switch (t) {
+            case START_OBJECT -> {
+                Map<String, Object> map = new LinkedHashMap<>();
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = p.currentName();
+                    map.put(name, readValue(p, p.nextToken()));
+                }
+                return map;
+            }
+            case START_ARRAY -> {
+                List<Object> list = new ArrayList<>();
+                JsonToken next;
+                while ((next = p.nextToken()) != JsonToken.END_ARRAY) {
+                    list.add(readValue(p, next));
+                }
+                return list;
+            }
+            case VALUE_STRING -> { return p.getText(); }
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> { return p.getNumberValue(); }
+            case VALUE_TRUE -> { return Boolean.TRUE; }
+            case VALUE_FALSE -> { return Boolean.FALSE; }
+            default -> { return null; }
+        }
+    }
+
+    private static String asText(Object value) {
+        return value == null || value instanceof Map || value instanceof List ? null : value.toString();
+    }
+
+    private static String text(JsonParser p, JsonToken t) throws IOException {
+        if (t.isScalarValue()) return p.getValueAsString();
+        p.skipChildren();
+        return null;
+    }
+
+    private static Long longValue(JsonParser p, JsonToken t) throws IOException {
+        if (t.isNumeric() || t == JsonToken.VALUE_STRING) return p.getValueAsLong();
+        p.skipChildren();
+        return null;
+    }
+
+    private static Double doubleValue(JsonParser p, JsonToken t) throws IOException {
+        if (t.isNumeric() || t == JsonToken.VALUE_STRING) return p.getValueAsDouble();
+        p.skipChildren();
+        return null;
+    }
+
+    private static Long timestamp(JsonParser p, JsonToken t) throws IOException {
+        if (t.isNumeric()) return p.getValueAsLong();
+        if (t != JsonToken.VALUE_STRING) {
+            p.skipChildren();
+            return null;
+        }
+        String s = p.getText();
+        try {
+            return Long.parseLong(s);
+        } catch (NumberFormatException ignored) {
+            // fall through to ISO-8601
+        }
+        try {
+            return Instant.parse(s).toEpochMilli();
+        } catch (Exception e) {
+            return System.currentTimeMillis();
+        }
+    }
+
+    /** Raw field values collected during the single pass; mapped to an {@link Event} once the format is known. */
+    private static final class Raw {
+        boolean serviceFormat;
+        Map<String, Object> meta;
+        String service, processingStage, processingState, inputMode;
+        String event, instanceId, status, lastError, message, uptime, hostname, publicHostname;
+        String currentFile, filename, url, publicUrl, internalUrl, version, app, stage, docId;
+        String topLocalStoragePath1, topLocalStoragePath2, topLocalStoragePath3;
+        Long timestamp, filesProcessed, filesTotal, totalChunks, processedChunks, errorCount, pendingMessages, latencyMs, bootEpoch;
+        Double processingRate, memoryUsedMB;
+    }
+}
@@ -14,12 +14,24 @@ import org.springframework.amqp.rabbit.annotation.EnableRabbit;
 public class RabbitConfig {
 
     @Bean
-    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory) {
+    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory, RagmonProperties props) {
+        RagmonProperties.Rabbit rabbit = props.getRabbit();
+        // Listeners always receive a List<Message>; with batching disabled each delivery is a singleton batch.
+        // A batch is closed once it reaches batchSize or batchTimeoutMs after it was started, so a slow trickle
+        // can't hold events back. The deadline is only checked between polls, hence the short receive timeout:
+        // no batch is held longer than about 1.25x batchTimeoutMs.
+        int batchSize = rabbit.isBatchEnabled() ? Math.max(1, rabbit.getBatchSize()) : 1;
         SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
         factory.setConnectionFactory(connectionFactory);
-        factory.setPrefetchCount(50);
-        factory.setConcurrentConsumers(1);
-        factory.setMaxConcurrentConsumers(4);
+        factory.setPrefetchCount(Math.max(rabbit.getPrefetch(), batchSize));
+        factory.setConcurrentConsumers(rabbit.getConcurrentConsumers());
+        factory.setMaxConcurrentConsumers(Math.max(rabbit.getConcurrentConsumers(), rabbit.getMaxConcurrentConsumers()));
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        long batchTimeoutMs = Math.max(1, rabbit.getBatchTimeoutMs());
+        factory.setBatchReceiveTimeout(batchTimeoutMs);
+        factory.setReceiveTimeout(Math.max(1, batchTimeoutMs / 4));
         return factory;
     }
 
@@ -2,17 +2,32 @@ package com.insurancemegacorp.ragmon.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @ConfigurationProperties(prefix = "ragmon")
 public class RagmonProperties {
     private final Rabbit rabbit = new Rabbit();
     private final Security security = new Security();
     private final Stream stream = new Stream();
     private final Apps apps = new Apps();
+    private final Rollups rollups = new Rollups();
+    private final Latency latency = new Latency();
+    private final Journal journal = new Journal();
+    private final History history = new History();
+    private final Instances instances = new Instances();
+    private final Proxy proxy = new Proxy();
 
     public Rabbit getRabbit() { return rabbit; }
     public Security getSecurity() { return security; }
     public Stream getStream() { return stream; }
     public Apps getApps() { return apps; }
+    public Rollups getRollups() { return rollups; }
+    public Latency getLatency() { return latency; }
+    public Journal getJournal() { return journal; }
+    public History getHistory() { return history; }
+    public Instances getInstances() { return instances; }
+    public Proxy getProxy() { return proxy; }
 
     public static class Rabbit {
         private String host;
@@ -22,6 +37,12 @@ public class RagmonProperties {
         private String password;
         private String monitorQueue = "ragmon.monitor";
         private boolean enabled = true;
+        private int prefetch = 50;
+        private int concurrentConsumers = 1;
+        private int maxConcurrentConsumers = 4;
+        private boolean batchEnabled = true;
+        private int batchSize = 100;
+        private long batchTimeoutMs = 100;
 
         public String getHost() { return host; }
         public void setHost(String host) { this.host = host; }
@@ -37,6 +58,18 @@ public class RagmonProperties {
         public void setMonitorQueue(String monitorQueue) { this.monitorQueue = monitorQueue; }
         public boolean isEnabled() { return enabled; }
         public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public int getPrefetch() { return prefetch; }
+        public void setPrefetch(int prefetch) { this.prefetch = prefetch; }
+        public int getConcurrentConsumers() { return concurrentConsumers; }
+        public void setConcurrentConsumers(int concurrentConsumers) { this.concurrentConsumers = concurrentConsumers; }
+        public int getMaxConcurrentConsumers() { return maxConcurrentConsumers; }
+        public void setMaxConcurrentConsumers(int maxConcurrentConsumers) { this.maxConcurrentConsumers = maxConcurrentConsumers; }
+        public boolean isBatchEnabled() { return batchEnabled; }
+        public void setBatchEnabled(boolean batchEnabled) { this.batchEnabled = batchEnabled; }
+        public int getBatchSize() { return batchSize; }
+        public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+        public long getBatchTimeoutMs() { return batchTimeoutMs; }
+        public void setBatchTimeoutMs(long batchTimeoutMs) { this.batchTimeoutMs = batchTimeoutMs; }
     }
 
     public static class Security {
@@ -55,10 +88,34 @@ public class RagmonProperties {
     public static class Stream {
         private String transport = "sse";
         private int retentionWindowSeconds = 600;
+        private int maxEvents = 100_000;
+        private boolean conflate = false;
+        private long conflateIntervalMs = 1_000;
+        private int subscriberBufferSize = 1024;
+        private String overflowPolicy = "drop-oldest"; // drop-oldest | conflate | disconnect
+        private int frameCacheSize = 4096;
+        private String backend = "ring"; // ring | columnar
+        private boolean parallelScans = false; // columnar countByStatus on the common ForkJoinPool
         public String getTransport() { return transport; }
         public void setTransport(String transport) { this.transport = transport; }
         public int getRetentionWindowSeconds() { return retentionWindowSeconds; }
         public void setRetentionWindowSeconds(int retentionWindowSeconds) { this.retentionWindowSeconds = retentionWindowSeconds; }
+        public int getMaxEvents() { return maxEvents; }
+        public void setMaxEvents(int maxEvents) { this.maxEvents = maxEvents; }
+        public boolean isConflate() { return conflate; }
+        public void setConflate(boolean conflate) { this.conflate = conflate; }
+        public long getConflateIntervalMs() { return conflateIntervalMs; }
+        public void setConflateIntervalMs(long conflateIntervalMs) { this.conflateIntervalMs = conflateIntervalMs; }
+        public int getSubscriberBufferSize() { return subscriberBufferSize; }
+        public void setSubscriberBufferSize(int subscriberBufferSize) { this.subscriberBufferSize = subscriberBufferSize; }
+        public String getOverflowPolicy() { return overflowPolicy; }
+        public void setOverflowPolicy(String overflowPolicy) { this.overflowPolicy = overflowPolicy; }
+        public int getFrameCacheSize() { return frameCacheSize; }
+        public void setFrameCacheSize(int frameCacheSize) { this.frameCacheSize = frameCacheSize; }
+        public String getBackend() { return backend; }
+        public void setBackend(String backend) { this.backend = backend; }
+        public boolean isParallelScans() { return parallelScans; }
+        public void setParallelScans(boolean parallelScans) { this.parallelScans = parallelScans; }
     }
 
     public static class Apps {
@@ -66,4 +123,123 @@ public class RagmonProperties {
         public int getDefaultPort() { return defaultPort; }
         public void setDefaultPort(int defaultPort) { this.defaultPort = defaultPort; }
     }
+
+    public static class Rollups {
+        private boolean enabled = true;
+        private int oneSecondRetentionSeconds = 300;
+        private int tenSecondRetentionSeconds = 3_600;
+        private int oneMinuteRetentionSeconds = 21_600;
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public int getOneSecondRetentionSeconds() { return oneSecondRetentionSeconds; }
+        public void setOneSecondRetentionSeconds(int oneSecondRetentionSeconds) { this.oneSecondRetentionSeconds = oneSecondRetentionSeconds; }
+        public int getTenSecondRetentionSeconds() { return tenSecondRetentionSeconds; }
+        public void setTenSecondRetentionSeconds(int tenSecondRetentionSeconds) { this.tenSecondRetentionSeconds = tenSecondRetentionSeconds; }
+        public int getOneMinuteRetentionSeconds() { return oneMinuteRetentionSeconds; }
+        public void setOneMinuteRetentionSeconds(int oneMinuteRetentionSeconds) { this.oneMinuteRetentionSeconds = oneMinuteRetentionSeconds; }
+    }
+
+    public static class Latency {
+        private int windowSeconds = 60;
+        private int windows = 60;
+        public int getWindowSeconds() { return windowSeconds; }
+        public void setWindowSeconds(int windowSeconds) { this.windowSeconds = windowSeconds; }
+        public int getWindows() { return windows; }
+        public void setWindows(int windows) { this.windows = windows; }
+    }
+
+    public static class Instances {
+        private int activityWindowSeconds = 30;
+        private int offlineWindowSeconds = 120;
+        private long timerTickMs = 1_000;
+        public int getActivityWindowSeconds() { return activityWindowSeconds; }
+        public void setActivityWindowSeconds(int activityWindowSeconds) { this.activityWindowSeconds = activityWindowSeconds; }
+        public int getOfflineWindowSeconds() { return offlineWindowSeconds; }
+        public void setOfflineWindowSeconds(int offlineWindowSeconds) { this.offlineWindowSeconds = offlineWindowSeconds; }
+        public long getTimerTickMs() { return timerTickMs; }
+        public void setTimerTickMs(long timerTickMs) { this.timerTickMs = timerTickMs; }
+    }
+
+    public static class Proxy {
+        private String balancer = "power-of-two"; // power-of-two | least-outstanding
+        // Connection pool limits, applied per upstream instance
+        private int maxConnectionsPerInstance = 32;
+        private int maxPendingPerInstance = 256;
+        private long failureCooldownMs = 10_000;
+        private final Cache cache = new Cache();
+        public String getBalancer() { return balancer; }
+        public void setBalancer(String balancer) { this.balancer = balancer; }
+        public int getMaxConnectionsPerInstance() { return maxConnectionsPerInstance; }
+        public void setMaxConnectionsPerInstance(int maxConnectionsPerInstance) { this.maxConnectionsPerInstance = maxConnectionsPerInstance; }
+        public int getMaxPendingPerInstance() { return maxPendingPerInstance; }
+        public void setMaxPendingPerInstance(int maxPendingPerInstance) { this.maxPendingPerInstance = maxPendingPerInstance; }
+        public long getFailureCooldownMs() { return failureCooldownMs; }
+        public void setFailureCooldownMs(long failureCooldownMs) { this.failureCooldownMs = failureCooldownMs; }
+        public Cache getCache() { return cache; }
+
+        public static class Cache {
+            private boolean enabled = false;
+            private int maxEntries = 1_024;
+            private int maxBodyBytes = 256 * 1024;
+            private List<Route> routes = new ArrayList<>();
+            public boolean isEnabled() { return enabled; }
+            public void setEnabled(boolean enabled) { this.enabled = enabled; }
+            public int getMaxEntries() { return maxEntries; }
+            public void setMaxEntries(int maxEntries) { this.maxEntries = maxEntries; }
+            public int getMaxBodyBytes() { return maxBodyBytes; }
+            public void setMaxBodyBytes(int maxBodyBytes) { this.maxBodyBytes = maxBodyBytes; }
+            public List<Route> getRoutes() { return routes; }
+            public void setRoutes(List<Route> routes) { this.routes = routes; }
+
+            /** A path pattern within the app (e.g. {@code /api/status} or {@code /api/files/**}) and its TTL. */
+            public static class Route {
+                private String path;
+                private long ttlMs;
+                public String getPath() { return path; }
+                public void setPath(String path) { this.path = path; }
+                public long getTtlMs() { return ttlMs; }
+                public void setTtlMs(long ttlMs) { this.ttlMs = ttlMs; }
+            }
+        }
+    }
+
+    public static class Journal {
+        private boolean enabled = false;
+        private String directory = "data/journal";
+        private int segmentSizeMb = 64;
+        private int rollIntervalSeconds = 300;
+        private int retentionSeconds = 3_600;
+        private int queueCapacity = 65_536;
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public String getDirectory() { return directory; }
+        public void setDirectory(String directory) { this.directory = directory; }
+        public int getSegmentSizeMb() { return segmentSizeMb; }
+        public void setSegmentSizeMb(int segmentSizeMb) { this.segmentSizeMb = segmentSizeMb; }
+        public int getRollIntervalSeconds() { return rollIntervalSeconds; }
+        public void setRollIntervalSeconds(int rollIntervalSeconds) { this.rollIntervalSeconds = rollIntervalSeconds; }
+        public int getRetentionSeconds() { return retentionSeconds; }
+        public void setRetentionSeconds(int retentionSeconds) { this.retentionSeconds = retentionSeconds; }
+        public int getQueueCapacity() { return queueCapacity; }
+        public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+    }
+
+    public static class History {
+        private boolean enabled = false;
+        private int queueCapacity = 50_000;
+        private int batchSize = 500;
+        private long flushIntervalMs = 1_000;
+        // Rows older than this are purged; 0 keeps everything
+        private long retentionHours = 24;
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public int getQueueCapacity() { return queueCapacity; }
+        public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+        public int getBatchSize() { return batchSize; }
+        public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+        public long getFlushIntervalMs() { return flushIntervalMs; }
+        public void setFlushIntervalMs(long flushIntervalMs) { this.flushIntervalMs = flushIntervalMs; }
+        public long getRetentionHours() { return retentionHours; }
+        public void setRetentionHours(long retentionHours) { this.retentionHours = retentionHours; }
+    }
 }
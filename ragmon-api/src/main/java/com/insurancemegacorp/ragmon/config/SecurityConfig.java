@@ -42,7 +42,7 @@ public class SecurityConfig {
                             .pathMatchers("/", "/index.html", "/assets/**", "/static/**", "/favicon.ico",
                                     "/v3/api-docs/**", "/swagger-ui.html", "/swagger-ui/**", "/actuator/health").permitAll();
                     if (allowAnonymousRead) {
-                        exchanges.pathMatchers("/stream", "/api/events/**", "/api/metrics", "/api/apps", "/api/queues").permitAll();
+                        exchanges.pathMatchers("/stream", "/api/events/**", "/api/metrics", "/api/metrics/**", "/api/streams/**", "/api/apps", "/api/queues").permitAll();
                     }
                     exchanges.anyExchange().authenticated();
                 })
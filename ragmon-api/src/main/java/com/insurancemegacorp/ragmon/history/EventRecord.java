@@ -0,0 +1,85 @@
+package com.insurancemegacorp.ragmon.history;
+
+import com.insurancemegacorp.ragmon.model.Event;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Persisted form of an {@link Event}. Rows are inserted by {@link HistoryWriter} with JDBC batches;
+ * JPA is used for the schema and for queries.
+ */
+@Entity
+@Table(name = "ragmon_event", indexes = {
+        @Index(name = "ix_ragmon_event_ts", columnList = "ts"),
+        @Index(name = "ix_ragmon_event_app_ts", columnList = "app, ts"),
+        @Index(name = "ix_ragmon_event_instance_ts", columnList = "instance_id, ts")
+})
+public class EventRecord {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "ts", nullable = false)
+    private long timestamp;
+    @Column(name = "app")
+    private String app;
+    @Column(name = "stage")
+    private String stage;
+    @Column(name = "event_type")
+    private String event;
+    @Column(name = "instance_id")
+    private String instanceId;
+    @Column(name = "doc_id")
+    private String docId;
+    @Column(name = "status")
+    private String status;
+    @Column(name = "message", length = 2048)
+    private String message;
+    @Column(name = "url", length = 1024)
+    private String url;
+    @Column(name = "latency_ms")
+    private Long latencyMs;
+    @Column(name = "files_processed")
+    private Long filesProcessed;
+    @Column(name = "files_total")
+    private Long filesTotal;
+    @Column(name = "total_chunks")
+    private Long totalChunks;
+    @Column(name = "processed_chunks")
+    private Long processedChunks;
+    @Column(name = "processing_rate")
+    private Double processingRate;
+    @Column(name = "error_count")
+    private Long errorCount;
+    @Column(name = "memory_used_mb")
+    private Double memoryUsedMB;
+    @Column(name = "pending_messages")
+    private Long pendingMessages;
+    @Column(name = "current_file", length = 1024)
+    private String currentFile;
+    @Column(name = "filename", length = 1024)
+    private String filename;
+
+    protected EventRecord() {}
+
+    public Event toEvent() {
+        Event e = new Event(app, stage, docId, timestamp, latencyMs, status, message, url);
+        e.setEvent(event);
+        e.setInstanceId(instanceId);
+        e.setFilesProcessed(filesProcessed);
+        e.setFilesTotal(filesTotal);
+        e.setTotalChunks(totalChunks);
+        e.setProcessedChunks(processedChunks);
+        e.setProcessingRate(processingRate);
+        e.setErrorCount(errorCount);
+        e.setMemoryUsedMB(memoryUsedMB);
+        e.setPendingMessages(pendingMessages);
+        e.setCurrentFile(currentFile);
+        e.setFilename(filename);
+        return e;
+    }
+}
@@ -0,0 +1,37 @@
+package com.insurancemegacorp.ragmon.history;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface EventRecordRepository extends JpaRepository<EventRecord, Long> {
+
+    /**
+     * Newest-first records in {@code [from, to]}, optionally narrowed to an app and/or instance. Each filter
+     * combination is its own query so the planner can use the matching {@code (app, ts)} / {@code (instance_id, ts)}
+     * index; a single query with {@code :param is null or ...} predicates cannot.
+     */
+    default List<EventRecord> search(long from, long to, String app, String instanceId, Pageable page) {
+        if (app != null && instanceId != null) {
+            return findByAppAndInstanceIdAndTimestampBetweenOrderByTimestampDesc(app, instanceId, from, to, page);
+        }
+        if (app != null) {
+            return findByAppAndTimestampBetweenOrderByTimestampDesc(app, from, to, page);
+        }
+        if (instanceId != null) {
+            return findByInstanceIdAndTimestampBetweenOrderByTimestampDesc(instanceId, from, to, page);
+        }
+        return findByTimestampBetweenOrderByTimestampDesc(from, to, page);
+    }
+
+    List<EventRecord> findByTimestampBetweenOrderByTimestampDesc(long from, long to, Pageable page);
+
+    List<EventRecord> findByAppAndTimestampBetweenOrderByTimestampDesc(String app, long from, long to, Pageable page);
+
+    List<EventRecord> findByInstanceIdAndTimestampBetweenOrderByTimestampDesc(String instanceId, long from, long to,
+                                                                             Pageable page);
+
+    List<EventRecord> findByAppAndInstanceIdAndTimestampBetweenOrderByTimestampDesc(String app, String instanceId,
+                                                                                   long from, long to, Pageable page);
+}
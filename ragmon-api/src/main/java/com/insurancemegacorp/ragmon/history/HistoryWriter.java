@@ -0,0 +1,157 @@
+package com.insurancemegacorp.ragmon.history;
+
+import com.insurancemegacorp.ragmon.config.RagmonProperties;
+import com.insurancemegacorp.ragmon.model.Event;
+import com.insurancemegacorp.ragmon.service.EventObserver;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind persistence of ingested events into {@code ragmon_event}. Ingest only offers to a bounded queue;
+ * when the database lags and the queue is full, events are dropped and counted rather than slowing ingest.
+ * A single writer thread drains the queue into JDBC batch inserts and, between batches, purges rows older than
+ * {@code ragmon.history.retentionHours}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "ragmon.history", name = "enabled", havingValue = "true")
+public class HistoryWriter implements EventObserver, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(HistoryWriter.class);
+    private static final String INSERT = "insert into ragmon_event (ts, app, stage, event_type, instance_id, doc_id,"
+            + " status, message, url, latency_ms, files_processed, files_total, total_chunks, processed_chunks,"
+            + " processing_rate, error_count, memory_used_mb, pending_messages, current_file, filename)"
+            + " values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String PURGE = "delete from ragmon_event where ts < ?";
+    private static final long PURGE_INTERVAL_MS = 60_000;
+
+    private final JdbcTemplate jdbc;
+    private final BlockingQueue<Event> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long retentionMs;
+    private long nextPurgeAt;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public HistoryWriter(JdbcTemplate jdbc, RagmonProperties props, MeterRegistry meters) {
+        RagmonProperties.History cfg = props.getHistory();
+        this.jdbc = jdbc;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, cfg.getQueueCapacity()));
+        this.batchSize = Math.max(1, cfg.getBatchSize());
+        this.flushIntervalMs = Math.max(1, cfg.getFlushIntervalMs());
+        this.retentionMs = Math.max(0, cfg.getRetentionHours()) * 3_600_000L;
+        warnIfInMemory();
+        FunctionCounter.builder("ragmon.history.written", written, AtomicLong::get)
+                .description("Events inserted into the history table").register(meters);
+        FunctionCounter.builder("ragmon.history.dropped", dropped, AtomicLong::get)
+                .description("Events not persisted because the queue was full or an insert failed").register(meters);
+        this.writer = new Thread(this::runWriter, "ragmon-history");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void onEvent(Event event) {
+        if (!queue.offer(event)) dropped.incrementAndGet();
+    }
+
+    /** Replayed events were written when they were first ingested. */
+    @Override
+    public boolean observesReplay() {
+        return false;
+    }
+
+    private void runWriter() {
+        List<Event> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                purgeIfDue();
+                Event first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                insert(batch);
+                written.addAndGet(batch.size());
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception ex) {
+                log.warn("History insert failed; {} events discarded", batch.size(), ex);
+                dropped.addAndGet(batch.size());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void purgeIfDue() {
+        long now = System.currentTimeMillis();
+        if (retentionMs == 0 || now < nextPurgeAt) return;
+        nextPurgeAt = now + PURGE_INTERVAL_MS;
+        try {
+            int purged = jdbc.update(PURGE, now - retentionMs);
+            if (purged > 0) log.debug("Purged {} history rows older than {} ms", purged, retentionMs);
+        } catch (Exception ex) {
+            log.warn("History purge failed", ex);
+        }
+    }
+
+    private void warnIfInMemory() {
+        String url = jdbc.execute((ConnectionCallback<String>) con -> con.getMetaData().getURL());
+        if (url != null && url.startsWith("jdbc:h2:mem:")) {
+            log.warn("History is enabled on in-memory database {}; rows are kept on the JVM heap. Point"
+                    + " spring.datasource.url (RAGMON_DB_URL) at a file or external database.", url);
+        }
+    }
+
+    private void insert(List<Event> batch) {
+        jdbc.batchUpdate(INSERT, batch, batch.size(), (ps, e) -> {
+            ps.setLong(1, e.getTimestamp());
+            ps.setString(2, e.getApp());
+            ps.setString(3, e.getStage());
+            ps.setString(4, e.getEvent());
+            ps.setString(5, e.getInstanceId());
+            ps.setString(6, e.getDocId());
+            ps.setString(7, e.getStatus());
+            ps.setString(8, truncate(e.getMessage(), 2048));
+            ps.setString(9, truncate(e.getUrl(), 1024));
+            ps.setObject(10, e.getLatencyMs(), Types.BIGINT);
+            ps.setObject(11, e.getFilesProcessed(), Types.BIGINT);
+            ps.setObject(12, e.getFilesTotal(), Types.BIGINT);
+            ps.setObject(13, e.getTotalChunks(), Types.BIGINT);
+            ps.setObject(14, e.getProcessedChunks(), Types.BIGINT);
+            ps.setObject(15, e.getProcessingRate(), Types.DOUBLE);
+            ps.setObject(16, e.getErrorCount(), Types.BIGINT);
+            ps.setObject(17, e.getMemoryUsedMB(), Types.DOUBLE);
+            ps.setObject(18, e.getPendingMessages(), Types.BIGINT);
+            ps.setString(19, truncate(e.getCurrentFile(), 1024));
+            ps.setString(20, truncate(e.getFilename(), 1024));
+        });
+    }
+
+    private static String truncate(String s, int max) {
+        return s == null || s.length() <= max ? s : s.substring(0, max);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        writer.join(5_000);
+    }
+}
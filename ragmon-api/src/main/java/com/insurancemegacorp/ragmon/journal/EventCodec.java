@@ -0,0 +1,132 @@
+package com.insurancemegacorp.ragmon.journal;
+
+import com.insurancemegacorp.ragmon.model.Event;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary encoding of {@link Event} for the journal: a presence bitmask followed by the present
+ * fields in declaration order. Strings are varint-length-prefixed UTF-8; counters are raw longs/doubles.
+ */
+final class EventCodec {
+    private static final int APP = 1, STAGE = 1 << 1, EVENT = 1 << 2, INSTANCE_ID = 1 << 3, DOC_ID = 1 << 4,
+            LATENCY_MS = 1 << 5, STATUS = 1 << 6, MESSAGE = 1 << 7, URL = 1 << 8, UPTIME = 1 << 9,
+            HOSTNAME = 1 << 10, PUBLIC_HOSTNAME = 1 << 11, CURRENT_FILE = 1 << 12, FILES_PROCESSED = 1 << 13,
+            FILES_TOTAL = 1 << 14, TOTAL_CHUNKS = 1 << 15, PROCESSED_CHUNKS = 1 << 16, PROCESSING_RATE = 1 << 17,
+            ERROR_COUNT = 1 << 18, MEMORY_USED_MB = 1 << 19, PENDING_MESSAGES = 1 << 20, FILENAME = 1 << 21;
+
+    private EventCodec() {}
+
+    /** Encodes into {@code out}; throws {@link java.nio.BufferOverflowException} if it does not fit. */
+    static void encode(Event e, ByteBuffer out) {
+        int bits = 0;
+        if (e.getApp() != null) bits |= APP;
+        if (e.getStage() != null) bits |= STAGE;
+        if (e.getEvent() != null) bits |= EVENT;
+        if (e.getInstanceId() != null) bits |= INSTANCE_ID;
+        if (e.getDocId() != null) bits |= DOC_ID;
+        if (e.getLatencyMs() != null) bits |= LATENCY_MS;
+        if (e.getStatus() != null) bits |= STATUS;
+        if (e.getMessage() != null) bits |= MESSAGE;
+        if (e.getUrl() != null) bits |= URL;
+        if (e.getUptime() != null) bits |= UPTIME;
+        if (e.getHostname() != null) bits |= HOSTNAME;
+        if (e.getPublicHostname() != null) bits |= PUBLIC_HOSTNAME;
+        if (e.getCurrentFile() != null) bits |= CURRENT_FILE;
+        if (e.getFilesProcessed() != null) bits |= FILES_PROCESSED;
+        if (e.getFilesTotal() != null) bits |= FILES_TOTAL;
+        if (e.getTotalChunks() != null) bits |= TOTAL_CHUNKS;
+        if (e.getProcessedChunks() != null) bits |= PROCESSED_CHUNKS;
+        if (e.getProcessingRate() != null) bits |= PROCESSING_RATE;
+        if (e.getErrorCount() != null) bits |= ERROR_COUNT;
+        if (e.getMemoryUsedMB() != null) bits |= MEMORY_USED_MB;
+        if (e.getPendingMessages() != null) bits |= PENDING_MESSAGES;
+        if (e.getFilename() != null) bits |= FILENAME;
+
+        out.putInt(bits);
+        out.putLong(e.getTimestamp());
+        if ((bits & APP) != 0) putString(out, e.getApp());
+        if ((bits & STAGE) != 0) putString(out, e.getStage());
+        if ((bits & EVENT) != 0) putString(out, e.getEvent());
+        if ((bits & INSTANCE_ID) != 0) putString(out, e.getInstanceId());
+        if ((bits & DOC_ID) != 0) putString(out, e.getDocId());
+        if ((bits & LATENCY_MS) != 0) out.putLong(e.getLatencyMs());
+        if ((bits & STATUS) != 0) putString(out, e.getStatus());
+        if ((bits & MESSAGE) != 0) putString(out, e.getMessage());
+        if ((bits & URL) != 0) putString(out, e.getUrl());
+        if ((bits & UPTIME) != 0) putString(out, e.getUptime());
+        if ((bits & HOSTNAME) != 0) putString(out, e.getHostname());
+        if ((bits & PUBLIC_HOSTNAME) != 0) putString(out, e.getPublicHostname());
+        if ((bits & CURRENT_FILE) != 0) putString(out, e.getCurrentFile());
+        if ((bits & FILES_PROCESSED) != 0) out.putLong(e.getFilesProcessed());
+        if ((bits & FILES_TOTAL) != 0) out.putLong(e.getFilesTotal());
+        if ((bits & TOTAL_CHUNKS) != 0) out.putLong(e.getTotalChunks());
+        if ((bits & PROCESSED_CHUNKS) != 0) out.putLong(e.getProcessedChunks());
+        if ((bits & PROCESSING_RATE) != 0) out.putDouble(e.getProcessingRate());
+        if ((bits & ERROR_COUNT) != 0) out.putLong(e.getErrorCount());
+        if ((bits & MEMORY_USED_MB) != 0) out.putDouble(e.getMemoryUsedMB());
+        if ((bits & PENDING_MESSAGES) != 0) out.putLong(e.getPendingMessages());
+        if ((bits & FILENAME) != 0) putString(out, e.getFilename());
+    }
+
+    static Event decode(ByteBuffer in) {
+        int bits = in.getInt();
+        Event e = new Event();
+        e.setTimestamp(in.getLong());
+        if ((bits & APP) != 0) e.setApp(getString(in));
+        if ((bits & STAGE) != 0) e.setStage(getString(in));
+        if ((bits & EVENT) != 0) e.setEvent(getString(in));
+        if ((bits & INSTANCE_ID) != 0) e.setInstanceId(getString(in));
+        if ((bits & DOC_ID) != 0) e.setDocId(getString(in));
+        if ((bits & LATENCY_MS) != 0) e.setLatencyMs(in.getLong());
+        if ((bits & STATUS) != 0) e.setStatus(getString(in));
+        if ((bits & MESSAGE) != 0) e.setMessage(getString(in));
+        if ((bits & URL) != 0) e.setUrl(getString(in));
+        if ((bits & UPTIME) != 0) e.setUptime(getString(in));
+        if ((bits & HOSTNAME) != 0) e.setHostname(getString(in));
+        if ((bits & PUBLIC_HOSTNAME) != 0) e.setPublicHostname(getString(in));
+        if ((bits & CURRENT_FILE) != 0) e.setCurrentFile(getString(in));
+        if ((bits & FILES_PROCESSED) != 0) e.setFilesProcessed(in.getLong());
+        if ((bits & FILES_TOTAL) != 0) e.setFilesTotal(in.getLong());
+        if ((bits & TOTAL_CHUNKS) != 0) e.setTotalChunks(in.getLong());
+        if ((bits & PROCESSED_CHUNKS) != 0) e.setProcessedChunks(in.getLong());
+        if ((bits & PROCESSING_RATE) != 0) e.setProcessingRate(in.getDouble());
+        if ((bits & ERROR_COUNT) != 0) e.setErrorCount(in.getLong());
+        if ((bits & MEMORY_USED_MB) != 0) e.setMemoryUsedMB(in.getDouble());
+        if ((bits & PENDING_MESSAGES) != 0) e.setPendingMessages(in.getLong());
+        if ((bits & FILENAME) != 0) e.setFilename(getString(in));
+        return e;
+    }
+
+    private static void putString(ByteBuffer out, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        putVarInt(out, bytes.length);
+        out.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        int len = getVarInt(in);
+        String s = new String(in.array(), in.arrayOffset() + in.position(), len, StandardCharsets.UTF_8);
+        in.position(in.position() + len);
+        return s;
+    }
+
+    private static void putVarInt(ByteBuffer out, int v) {
+        while ((v & ~0x7F) != 0) {
+            out.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.put((byte) v);
+    }
+
+    private static int getVarInt(ByteBuffer in) {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.get();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+}
@@ -0,0 +1,235 @@
+package com.insurancemegacorp.ragmon.journal;
+
+import com.insurancemegacorp.ragmon.config.RagmonProperties;
+import com.insurancemegacorp.ragmon.model.Event;
+import com.insurancemegacorp.ragmon.service.EventObserver;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Append-only event log on segmented, memory-mapped files.
+ * <p>
+ * Ingest only enqueues into a bounded queue (dropping and counting when full); a dedicated writer thread
+ * encodes events with {@link EventCodec} into the active segment. Each segment is named after its creation
+ * time, is rolled when full or older than {@code rollIntervalSeconds}, and is deleted once everything in it
+ * is older than {@code retentionSeconds}. Records are {@code [int length][payload]}; the length is written
+ * last, so a zero length marks the end of a segment, including one torn by a crash.
+ */
+@Component
+@ConditionalOnProperty(prefix = "ragmon.journal", name = "enabled", havingValue = "true")
+public class EventJournal implements EventObserver, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(EventJournal.class);
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_MAGIC = 0x524A4E31; // "RJN1"
+    private static final int HEADER_SIZE = 8;
+    private static final int DRAIN_BATCH = 1024;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long rollIntervalMs;
+    private final long retentionMs;
+    private final BlockingQueue<Event> queue;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    // Writer-thread state
+    private MappedByteBuffer active;
+    private long activeCreatedAt;
+    private ByteBuffer scratch = ByteBuffer.allocate(4096);
+
+    public EventJournal(RagmonProperties props, MeterRegistry meters) throws IOException {
+        RagmonProperties.Journal cfg = props.getJournal();
+        this.directory = Paths.get(cfg.getDirectory());
+        this.segmentBytes = Math.max(1, cfg.getSegmentSizeMb()) * 1024 * 1024;
+        this.rollIntervalMs = Math.max(1, cfg.getRollIntervalSeconds()) * 1000L;
+        this.retentionMs = Math.max(cfg.getRetentionSeconds(), props.getStream().getRetentionWindowSeconds()) * 1000L;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, cfg.getQueueCapacity()));
+        Files.createDirectories(directory);
+        FunctionCounter.builder("ragmon.journal.dropped", dropped, AtomicLong::get)
+                .description("Events not journaled because the queue was full or a segment write failed").register(meters);
+        this.writer = new Thread(this::runWriter, "ragmon-journal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void onEvent(Event event) {
+        if (!queue.offer(event)) dropped.incrementAndGet();
+    }
+
+    /** Replayed events are already in the journal. */
+    @Override
+    public boolean observesReplay() {
+        return false;
+    }
+
+    /**
+     * Reads every retained record with a timestamp at or after {@code since}, oldest segment first, in batches.
+     * Feed them to {@link com.insurancemegacorp.ragmon.service.EventStore#replayAll} so they are not journaled
+     * again.
+     */
+    public void replay(long since, int batchSize, Consumer<List<Event>> sink) throws IOException {
+        List<Path> segments = segments();
+        List<Event> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < segments.size(); i++) {
+            // A segment only holds records older than its successor's creation time
+            if (i + 1 < segments.size() && createdAt(segments.get(i + 1)) < since) continue;
+            readSegment(segments.get(i), e -> {
+                if (e.getTimestamp() < since) return;
+                batch.add(e);
+                if (batch.size() >= batchSize) {
+                    sink.accept(List.copyOf(batch));
+                    batch.clear();
+                }
+            });
+        }
+        if (!batch.isEmpty()) sink.accept(List.copyOf(batch));
+    }
+
+    private void readSegment(Path file, Consumer<Event> consumer) throws IOException {
+        try (FileChannel ch = FileChannel.open(file)) {
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            if (buf.remaining() < HEADER_SIZE || buf.getInt() != HEADER_MAGIC) {
+                log.warn("Skipping journal segment with bad header: {}", file);
+                return;
+            }
+            buf.getInt(); // reserved
+            ByteBuffer record = ByteBuffer.allocate(4096);
+            while (buf.remaining() >= Integer.BYTES) {
+                int len = buf.getInt();
+                if (len <= 0 || len > buf.remaining()) break;
+                if (record.capacity() < len) record = ByteBuffer.allocate(len);
+                record.clear().limit(len);
+                buf.get(record.array(), 0, len);
+                try {
+                    consumer.accept(EventCodec.decode(record));
+                } catch (RuntimeException ex) {
+                    log.warn("Stopping replay of {} at a corrupt record", file, ex);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void runWriter() {
+        List<Event> batch = new ArrayList<>(DRAIN_BATCH);
+        long lastHousekeeping = 0;
+        while (running || !queue.isEmpty()) {
+            try {
+                Event first = queue.poll(250, TimeUnit.MILLISECONDS);
+                long now = System.currentTimeMillis();
+                if (now - lastHousekeeping > 10_000) {
+                    lastHousekeeping = now;
+                    if (active != null && now - activeCreatedAt > rollIntervalMs) roll(now);
+                    deleteExpired(now);
+                }
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, DRAIN_BATCH - 1);
+                for (Event e : batch) write(e);
+                batch.clear();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception ex) {
+                log.warn("Journal write failed; {} events discarded", batch.size(), ex);
+                dropped.addAndGet(batch.size());
+                batch.clear();
+            }
+        }
+        if (active != null) active.force();
+    }
+
+    private void write(Event e) throws IOException {
+        while (true) {
+            try {
+                scratch.clear();
+                EventCodec.encode(e, scratch);
+                break;
+            } catch (BufferOverflowException overflow) {
+                scratch = ByteBuffer.allocate(scratch.capacity() * 2);
+            }
+        }
+        scratch.flip();
+        int len = scratch.remaining();
+        if (len + Integer.BYTES > segmentBytes - HEADER_SIZE) {
+            dropped.incrementAndGet();
+            return;
+        }
+        if (active == null || active.remaining() < len + Integer.BYTES) roll(System.currentTimeMillis());
+        int start = active.position();
+        active.position(start + Integer.BYTES);
+        active.put(scratch);
+        active.putInt(start, len);
+    }
+
+    private void roll(long now) throws IOException {
+        if (active != null) active.force();
+        // Segment names must be unique and increasing even when rolled within the same millisecond
+        long createdAt = Math.max(now, activeCreatedAt + 1);
+        Path file = directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, createdAt, SEGMENT_SUFFIX));
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(segmentBytes);
+            active = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+        active.putInt(HEADER_MAGIC);
+        active.putInt(0);
+        activeCreatedAt = createdAt;
+    }
+
+    private void deleteExpired(long now) throws IOException {
+        List<Path> segments = segments();
+        long cutoff = now - retentionMs;
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (createdAt(segments.get(i + 1)) >= cutoff) break;
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> {
+                        String n = p.getFileName().toString();
+                        return n.startsWith(SEGMENT_PREFIX) && n.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long createdAt(Path segment) {
+        String n = segment.getFileName().toString();
+        return Long.parseLong(n.substring(SEGMENT_PREFIX.length(), n.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        writer.join(5_000);
+    }
+}
@@ -0,0 +1,62 @@
+package com.insurancemegacorp.ragmon.journal;
+
+import com.insurancemegacorp.ragmon.config.RagmonProperties;
+import com.insurancemegacorp.ragmon.model.Event;
+import com.insurancemegacorp.ragmon.service.EventStore;
+import com.insurancemegacorp.ragmon.service.InstanceRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rebuilds the event store and instance registry from the journal on startup. Runs once all singletons exist
+ * and before listener containers start, so replayed history always precedes live traffic.
+ */
+@Component
+@ConditionalOnProperty(prefix = "ragmon.journal", name = "enabled", havingValue = "true")
+public class JournalReplay implements SmartInitializingSingleton {
+    private static final Logger log = LoggerFactory.getLogger(JournalReplay.class);
+    private static final int BATCH_SIZE = 1_000;
+
+    private final EventJournal journal;
+    private final EventStore store;
+    private final InstanceRegistry registry;
+    private final long retentionMs;
+
+    public JournalReplay(EventJournal journal, EventStore store, InstanceRegistry registry, RagmonProperties props) {
+        this.journal = journal;
+        this.store = store;
+        this.registry = registry;
+        this.retentionMs = props.getStream().getRetentionWindowSeconds() * 1000L;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long since = System.currentTimeMillis() - retentionMs;
+        long[] replayed = {0};
+        try {
+            journal.replay(since, BATCH_SIZE, batch -> {
+                List<Event> observed = new ArrayList<>(batch.size());
+                for (Event e : batch) {
+                    // Liveness transitions are stream-only now, but journals written before that may still hold them
+                    if (InstanceRegistry.isTransition(e.getEvent())) continue;
+                    if (e.getInstanceId() != null) {
+                        boolean isHeartbeat = "INIT".equalsIgnoreCase(e.getEvent()) || "HEARTBEAT".equalsIgnoreCase(e.getEvent());
+                        registry.restore(e.getApp(), e.getInstanceId(), e.getUrl(), e.getStatus(), isHeartbeat, e.getTimestamp());
+                    }
+                    observed.add(e);
+                }
+                store.replayAll(observed);
+                replayed[0] += observed.size();
+            });
+            log.info("Replayed {} events from the journal", replayed[0]);
+        } catch (Exception e) {
+            log.warn("Journal replay failed after {} events", replayed[0], e);
+        }
+    }
+}
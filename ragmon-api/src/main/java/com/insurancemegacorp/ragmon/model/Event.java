@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class Event {
+    private Long seq; // assigned by EventStore on append
     private String app;
     private String stage;
     private String event; // INIT, HEARTBEAT, FILE_PROCESSED
@@ -41,6 +42,8 @@ public class Event {
         this.url = url;
     }
 
+    public Long getSeq() { return seq; }
+    public void setSeq(Long seq) { this.seq = seq; }
     public String getApp() { return app; }
     public void setApp(String app) { this.app = app; }
     public String getStage() { return stage; }
@@ -0,0 +1,329 @@
+package com.insurancemegacorp.ragmon.service;
+
+import com.insurancemegacorp.ragmon.model.Event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Backend for large retention windows: events are split across fixed-size chunks of primitive columns instead of
+ * one object per event. Timestamps and counters are {@code long[]}/{@code double[]}, low-cardinality strings are
+ * ids into per-field {@link StringDictionary}s, instance ids, URLs and hosts are shared through {@link StringPool}s,
+ * and optional columns are only allocated once a chunk sees a value. Millions of retained events are then a few
+ * thousand arrays the collector never has to trace into, and eviction drops a whole chunk at a time.
+ * <p>
+ * There are no secondary indexes; dictionary-backed filters are resolved to ids once and queries and aggregates
+ * run as straight loops over the columns, with {@link #countByStatus} optionally fanned out across chunks. Like
+ * {@link EventRing}, readers never block: a chunk is never rewritten once its slot is reused, so a reader holding
+ * one still sees consistent data, and one fetched for the wrong base is treated as evicted.
+ */
+final class ColumnarEventBackend implements EventBackend {
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int OFFSET_MASK = CHUNK_SIZE - 1;
+    // Filter id for an unconstrained column; real ids are >= 0
+    private static final int ANY = -1;
+
+    private static final short LATENCY_MS = 1, FILES_PROCESSED = 1 << 1, FILES_TOTAL = 1 << 2, TOTAL_CHUNKS = 1 << 3,
+            PROCESSED_CHUNKS = 1 << 4, ERROR_COUNT = 1 << 5, PENDING_MESSAGES = 1 << 6, PROCESSING_RATE = 1 << 7,
+            MEMORY_USED_MB = 1 << 8;
+
+    private final StringDictionary apps = new StringDictionary();
+    private final StringDictionary stages = new StringDictionary();
+    private final StringDictionary events = new StringDictionary();
+    private final StringDictionary statuses = new StringDictionary();
+    private final StringPool instanceIds = new StringPool();
+    private final StringPool urls = new StringPool();
+    private final StringPool hostnames = new StringPool();
+
+    private final AtomicReferenceArray<Chunk> chunks;
+    private final int maxEvents;
+    private final boolean parallelScans;
+    private final EvictionListener listener;
+    private volatile long head; // next sequence to assign
+    private volatile long tail; // oldest retained sequence
+
+    ColumnarEventBackend(int maxEvents, boolean parallelScans, EvictionListener listener) {
+        if (maxEvents < 1) throw new IllegalArgumentException("maxEvents must be positive");
+        // [tail, head) spans at most maxEvents / CHUNK_SIZE + 2 chunks, so a slot is only reused once it is dead
+        this.chunks = new AtomicReferenceArray<>(maxEvents / CHUNK_SIZE + 2);
+        this.maxEvents = maxEvents;
+        this.parallelScans = parallelScans;
+        this.listener = listener;
+    }
+
+    @Override public long headSequence() { return head; }
+    @Override public long tailSequence() { return tail; }
+    @Override public int size() { return (int) Math.max(0, head - tail); }
+
+    @Override
+    public void append(Event e) {
+        long s = head;
+        if (s - tail >= maxEvents) evictOldest();
+        int i = offset(s);
+        Chunk c;
+        if (i == 0) {
+            c = new Chunk(s);
+            chunks.set(slot(s), c);
+        } else {
+            c = chunks.get(slot(s));
+        }
+        c.timestamp[i] = e.getTimestamp();
+        c.app[i] = apps.intern(e.getApp());
+        c.stage[i] = stages.intern(e.getStage());
+        c.event[i] = events.intern(e.getEvent());
+        c.instanceId[i] = instanceIds.acquire(e.getInstanceId());
+        c.status[i] = statuses.intern(e.getStatus());
+        c.url[i] = urls.acquire(e.getUrl());
+        c.hostname[i] = hostnames.acquire(e.getHostname());
+        c.publicHostname[i] = hostnames.acquire(e.getPublicHostname());
+        c.write(i, e);
+        head = s + 1;
+    }
+
+    @Override
+    public void evictOlderThan(long cutoff) {
+        while (tail < head) {
+            long t = tail;
+            if (chunks.get(slot(t)).timestamp[offset(t)] >= cutoff) break;
+            evictOldest();
+        }
+    }
+
+    private void evictOldest() {
+        long t = tail;
+        Chunk c = chunks.get(slot(t));
+        int i = offset(t);
+        tail = t + 1;
+        // The whole chunk goes once its last event does
+        if (i == OFFSET_MASK) chunks.set(slot(t), null);
+        // Readers may still hold the chunk, so its cells are left as they are; only the pool holds are dropped
+        instanceIds.release(c.instanceId[i]);
+        urls.release(c.url[i]);
+        hostnames.release(c.hostname[i]);
+        hostnames.release(c.publicHostname[i]);
+        listener.onEvict(apps.get(c.app[i]), stages.get(c.stage[i]), c.instanceId[i], statuses.get(c.status[i]));
+    }
+
+    @Override
+    public List<Event> query(EventQuery q) {
+        int limit = q.effectiveLimit();
+        Filter f = compile(q);
+        if (limit == 0 || f == null) return List.of();
+        List<Event> out = new ArrayList<>(Math.min(limit, 1024));
+        long h = head;
+
+        if (q.since() != null) {
+            long s = Math.max(q.since() + 1, tail);
+            while (s < h && out.size() < limit) {
+                long base = s - offset(s);
+                long end = Math.min(h, base + CHUNK_SIZE);
+                Chunk c = chunkAt(s);
+                // A missing chunk was evicted after we read tail; later chunks are still valid
+                if (c != null) {
+                    for (int i = offset(s), n = (int) (end - base); i < n; i++) {
+                        if (c.matches(i, f) && out.add(materialize(c, i)) && out.size() >= limit) break;
+                    }
+                }
+                s = end;
+            }
+            return out;
+        }
+
+        long floor = tail;
+        long s = h - 1;
+        while (s >= floor && out.size() < limit) {
+            long base = s - offset(s);
+            Chunk c = chunkAt(s);
+            if (c == null) break; // everything older has been evicted too
+            for (int i = offset(s), lo = (int) (Math.max(floor, base) - base); i >= lo; i--) {
+                if (c.matches(i, f) && out.add(materialize(c, i)) && out.size() >= limit) break;
+            }
+            s = base - 1;
+        }
+        Collections.reverse(out);
+        return out;
+    }
+
+    @Override
+    public Map<String, Long> countByStatus(EventQuery q) {
+        Filter f = compile(q);
+        if (f == null) return Map.of();
+        long h = head;
+        long t = tail;
+        // Read after head, so it covers every status id stored below h
+        int width = statuses.bound();
+        List<long[]> ranges = new ArrayList<>();
+        for (long base = t - offset(t); base < h; base += CHUNK_SIZE) {
+            ranges.add(new long[]{Math.max(t, base), Math.min(h, base + CHUNK_SIZE)});
+        }
+        long[] tally = (parallelScans ? ranges.parallelStream() : ranges.stream())
+                .map(r -> {
+                    Chunk c = chunkAt(r[0]);
+                    return c != null ? c.tallyStatus(offset(r[0]), (int) (r[1] - c.base), f, width) : new long[width];
+                })
+                .reduce((a, b) -> {
+                    for (int i = 0; i < a.length; i++) a[i] += b[i];
+                    return a;
+                })
+                .orElse(new long[width]);
+        Map<String, Long> counts = new HashMap<>();
+        for (int id = 1; id < tally.length; id++) {
+            if (tally[id] > 0) counts.put(statuses.get(id), tally[id]);
+        }
+        return counts;
+    }
+
+    /**
+     * Resolves the query's dictionary-backed filters to ids; null if a value was never seen, so nothing matches.
+     * Pooled fields are compared as strings.
+     */
+    private Filter compile(EventQuery q) {
+        int app = resolve(apps, q.app());
+        int status = resolve(statuses, q.status());
+        int event = resolve(events, q.event());
+        if (app == -2 || status == -2 || event == -2) return null;
+        return new Filter(app, q.instanceId(), status, event, q.docId(),
+                q.from() != null ? q.from() : Long.MIN_VALUE, q.to() != null ? q.to() : Long.MAX_VALUE);
+    }
+
+    private static int resolve(StringDictionary dict, String value) {
+        if (value == null) return ANY;
+        int id = dict.idOf(value);
+        return id >= 0 ? id : -2;
+    }
+
+    private Event materialize(Chunk c, int i) {
+        Event e = new Event();
+        e.setSeq(c.base + i);
+        e.setTimestamp(c.timestamp[i]);
+        e.setApp(apps.get(c.app[i]));
+        e.setStage(stages.get(c.stage[i]));
+        e.setEvent(events.get(c.event[i]));
+        e.setInstanceId(c.instanceId[i]);
+        e.setStatus(statuses.get(c.status[i]));
+        e.setUrl(c.url[i]);
+        e.setHostname(c.hostname[i]);
+        e.setPublicHostname(c.publicHostname[i]);
+        c.read(i, e);
+        return e;
+    }
+
+    private Chunk chunkAt(long seq) {
+        Chunk c = chunks.get(slot(seq));
+        return c != null && c.base == seq - offset(seq) ? c : null;
+    }
+
+    private int slot(long seq) {
+        return (int) ((seq >>> CHUNK_BITS) % chunks.length());
+    }
+
+    private static int offset(long seq) {
+        return (int) (seq & OFFSET_MASK);
+    }
+
+    private record Filter(int app, String instanceId, int status, int event, String docId, long from, long to) {}
+
+    /** Columns for the {@code CHUNK_SIZE} sequences starting at {@code base}. Optional columns start out null. */
+    private static final class Chunk {
+        final long base;
+        final long[] timestamp = new long[CHUNK_SIZE];
+        final int[] app = new int[CHUNK_SIZE];
+        final int[] stage = new int[CHUNK_SIZE];
+        final int[] event = new int[CHUNK_SIZE];
+        final int[] status = new int[CHUNK_SIZE];
+        final String[] instanceId = new String[CHUNK_SIZE];
+        final String[] url = new String[CHUNK_SIZE];
+        final String[] hostname = new String[CHUNK_SIZE];
+        final String[] publicHostname = new String[CHUNK_SIZE];
+        // Which optional numeric columns hold a value for each row
+        short[] present;
+        long[] latencyMs, filesProcessed, filesTotal, totalChunks, processedChunks, errorCount, pendingMessages;
+        double[] processingRate, memoryUsedMB;
+        String[] docId, message, uptime, currentFile, filename;
+
+        Chunk(long base) {
+            this.base = base;
+        }
+
+        boolean matches(int i, Filter f) {
+            long ts = timestamp[i];
+            return ts >= f.from() && ts <= f.to()
+                    && (f.app() == ANY || app[i] == f.app())
+                    && (f.instanceId() == null || f.instanceId().equals(instanceId[i]))
+                    && (f.status() == ANY || status[i] == f.status())
+                    && (f.event() == ANY || event[i] == f.event())
+                    && (f.docId() == null || docId != null && f.docId().equals(docId[i]));
+        }
+
+        long[] tallyStatus(int from, int to, Filter f, int width) {
+            long[] counts = new long[width];
+            for (int i = from; i < to; i++) {
+                if (matches(i, f)) counts[status[i]]++;
+            }
+            return counts;
+        }
+
+        void write(int i, Event e) {
+            int bits = 0;
+            if (e.getLatencyMs() != null) { latencyMs = put(latencyMs, i, e.getLatencyMs()); bits |= LATENCY_MS; }
+            if (e.getFilesProcessed() != null) { filesProcessed = put(filesProcessed, i, e.getFilesProcessed()); bits |= FILES_PROCESSED; }
+            if (e.getFilesTotal() != null) { filesTotal = put(filesTotal, i, e.getFilesTotal()); bits |= FILES_TOTAL; }
+            if (e.getTotalChunks() != null) { totalChunks = put(totalChunks, i, e.getTotalChunks()); bits |= TOTAL_CHUNKS; }
+            if (e.getProcessedChunks() != null) { processedChunks = put(processedChunks, i, e.getProcessedChunks()); bits |= PROCESSED_CHUNKS; }
+            if (e.getErrorCount() != null) { errorCount = put(errorCount, i, e.getErrorCount()); bits |= ERROR_COUNT; }
+            if (e.getPendingMessages() != null) { pendingMessages = put(pendingMessages, i, e.getPendingMessages()); bits |= PENDING_MESSAGES; }
+            if (e.getProcessingRate() != null) { processingRate = put(processingRate, i, e.getProcessingRate()); bits |= PROCESSING_RATE; }
+            if (e.getMemoryUsedMB() != null) { memoryUsedMB = put(memoryUsedMB, i, e.getMemoryUsedMB()); bits |= MEMORY_USED_MB; }
+            if (bits != 0) {
+                if (present == null) present = new short[CHUNK_SIZE];
+                present[i] = (short) bits;
+            }
+            if (e.getDocId() != null) docId = put(docId, i, e.getDocId());
+            if (e.getMessage() != null) message = put(message, i, e.getMessage());
+            if (e.getUptime() != null) uptime = put(uptime, i, e.getUptime());
+            if (e.getCurrentFile() != null) currentFile = put(currentFile, i, e.getCurrentFile());
+            if (e.getFilename() != null) filename = put(filename, i, e.getFilename());
+        }
+
+        void read(int i, Event e) {
+            int bits = present != null ? present[i] : 0;
+            if ((bits & LATENCY_MS) != 0) e.setLatencyMs(latencyMs[i]);
+            if ((bits & FILES_PROCESSED) != 0) e.setFilesProcessed(filesProcessed[i]);
+            if ((bits & FILES_TOTAL) != 0) e.setFilesTotal(filesTotal[i]);
+            if ((bits & TOTAL_CHUNKS) != 0) e.setTotalChunks(totalChunks[i]);
+            if ((bits & PROCESSED_CHUNKS) != 0) e.setProcessedChunks(processedChunks[i]);
+            if ((bits & ERROR_COUNT) != 0) e.setErrorCount(errorCount[i]);
+            if ((bits & PENDING_MESSAGES) != 0) e.setPendingMessages(pendingMessages[i]);
+            if ((bits & PROCESSING_RATE) != 0) e.setProcessingRate(processingRate[i]);
+            if ((bits & MEMORY_USED_MB) != 0) e.setMemoryUsedMB(memoryUsedMB[i]);
+            if (docId != null) e.setDocId(docId[i]);
+            if (message != null) e.setMessage(message[i]);
+            if (uptime != null) e.setUptime(uptime[i]);
+            if (currentFile != null) e.setCurrentFile(currentFile[i]);
+            if (filename != null) e.setFilename(filename[i]);
+        }
+
+        private static long[] put(long[] column, int i, long v) {
+            if (column == null) column = new long[CHUNK_SIZE];
+            column[i] = v;
+            return column;
+        }
+
+        private static double[] put(double[] column, int i, double v) {
+            if (column == null) column = new double[CHUNK_SIZE];
+            column[i] = v;
+            return column;
+        }
+
+        private static String[] put(String[] column, int i, String v) {
+            if (column == null) column = new String[CHUNK_SIZE];
+            column[i] = v;
+            return column;
+        }
+    }
+}
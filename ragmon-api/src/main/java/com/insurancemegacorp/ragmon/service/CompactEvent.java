@@ -0,0 +1,211 @@
+package com.insurancemegacorp.ragmon.service;
+
+import com.insurancemegacorp.ragmon.model.Event;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Retained form of an {@link Event}. Low-cardinality strings (app, stage, event type, status) are ids into per-field
+ * {@link StringDictionary}s; instance ids, URLs and hosts come and go with instances, so they are shared through
+ * {@link StringPool}s that forget a value once no retained event holds it. The
+ * optional counters plus free-text fields are packed into one byte array behind a presence bitmask (zig-zag
+ * varints for longs, raw bits for doubles, length-prefixed UTF-8 for strings). A heartbeat that costs several
+ * hundred bytes as a POJO with boxed numbers and fresh strings takes roughly a fifth of that here. The
+ * {@code Event} shape is rebuilt by {@link Codec#decode} only when a reader asks for it.
+ */
+final class CompactEvent {
+    // seq and timestamp live in the ring entry that holds this
+    final int app, stage, event, status;
+    final String instanceId, url, hostname, publicHostname, docId;
+    private final byte[] tail;
+
+    private CompactEvent(int app, int stage, int event, String instanceId, int status, String url,
+                         String hostname, String publicHostname, String docId, byte[] tail) {
+        this.app = app;
+        this.stage = stage;
+        this.event = event;
+        this.instanceId = instanceId;
+        this.status = status;
+        this.url = url;
+        this.hostname = hostname;
+        this.publicHostname = publicHostname;
+        this.docId = docId;
+        this.tail = tail;
+    }
+
+    /**
+     * Dictionaries and pools plus the writer's scratch buffer. {@link #encode} and {@link #release} are writer-only;
+     * the rest is thread-safe.
+     */
+    static final class Codec {
+        private static final int LATENCY_MS = 1, FILES_PROCESSED = 1 << 1, FILES_TOTAL = 1 << 2, TOTAL_CHUNKS = 1 << 3,
+                PROCESSED_CHUNKS = 1 << 4, ERROR_COUNT = 1 << 5, PENDING_MESSAGES = 1 << 6, PROCESSING_RATE = 1 << 7,
+                MEMORY_USED_MB = 1 << 8, MESSAGE = 1 << 9, UPTIME = 1 << 10, CURRENT_FILE = 1 << 11, FILENAME = 1 << 12;
+
+        private final StringDictionary apps = new StringDictionary();
+        private final StringDictionary stages = new StringDictionary();
+        private final StringDictionary events = new StringDictionary();
+        private final StringDictionary statuses = new StringDictionary();
+        private final StringPool instanceIds = new StringPool();
+        private final StringPool urls = new StringPool();
+        private final StringPool hostnames = new StringPool();
+        private byte[] scratch = new byte[256];
+        private int pos;
+
+        CompactEvent encode(Event e) {
+            int bits = 0;
+            if (e.getLatencyMs() != null) bits |= LATENCY_MS;
+            if (e.getFilesProcessed() != null) bits |= FILES_PROCESSED;
+            if (e.getFilesTotal() != null) bits |= FILES_TOTAL;
+            if (e.getTotalChunks() != null) bits |= TOTAL_CHUNKS;
+            if (e.getProcessedChunks() != null) bits |= PROCESSED_CHUNKS;
+            if (e.getErrorCount() != null) bits |= ERROR_COUNT;
+            if (e.getPendingMessages() != null) bits |= PENDING_MESSAGES;
+            if (e.getProcessingRate() != null) bits |= PROCESSING_RATE;
+            if (e.getMemoryUsedMB() != null) bits |= MEMORY_USED_MB;
+            if (e.getMessage() != null) bits |= MESSAGE;
+            if (e.getUptime() != null) bits |= UPTIME;
+            if (e.getCurrentFile() != null) bits |= CURRENT_FILE;
+            if (e.getFilename() != null) bits |= FILENAME;
+
+            byte[] tail = null;
+            if (bits != 0) {
+                pos = 0;
+                putVarLong(bits);
+                if ((bits & LATENCY_MS) != 0) putVarLong(zigZag(e.getLatencyMs()));
+                if ((bits & FILES_PROCESSED) != 0) putVarLong(zigZag(e.getFilesProcessed()));
+                if ((bits & FILES_TOTAL) != 0) putVarLong(zigZag(e.getFilesTotal()));
+                if ((bits & TOTAL_CHUNKS) != 0) putVarLong(zigZag(e.getTotalChunks()));
+                if ((bits & PROCESSED_CHUNKS) != 0) putVarLong(zigZag(e.getProcessedChunks()));
+                if ((bits & ERROR_COUNT) != 0) putVarLong(zigZag(e.getErrorCount()));
+                if ((bits & PENDING_MESSAGES) != 0) putVarLong(zigZag(e.getPendingMessages()));
+                if ((bits & PROCESSING_RATE) != 0) putLong(Double.doubleToRawLongBits(e.getProcessingRate()));
+                if ((bits & MEMORY_USED_MB) != 0) putLong(Double.doubleToRawLongBits(e.getMemoryUsedMB()));
+                if ((bits & MESSAGE) != 0) putString(e.getMessage());
+                if ((bits & UPTIME) != 0) putString(e.getUptime());
+                if ((bits & CURRENT_FILE) != 0) putString(e.getCurrentFile());
+                if ((bits & FILENAME) != 0) putString(e.getFilename());
+                tail = Arrays.copyOf(scratch, pos);
+            }
+            return new CompactEvent(apps.intern(e.getApp()), stages.intern(e.getStage()), events.intern(e.getEvent()),
+                    instanceIds.acquire(e.getInstanceId()), statuses.intern(e.getStatus()), urls.acquire(e.getUrl()),
+                    hostnames.acquire(e.getHostname()), hostnames.acquire(e.getPublicHostname()), e.getDocId(), tail);
+        }
+
+        /** Returns {@code c}'s pooled strings once it has been evicted. */
+        void release(CompactEvent c) {
+            instanceIds.release(c.instanceId);
+            urls.release(c.url);
+            hostnames.release(c.hostname);
+            hostnames.release(c.publicHostname);
+        }
+
+        Event decode(long seq, long timestamp, CompactEvent c) {
+            Event e = new Event();
+            e.setSeq(seq);
+            e.setTimestamp(timestamp);
+            e.setApp(apps.get(c.app));
+            e.setStage(stages.get(c.stage));
+            e.setEvent(events.get(c.event));
+            e.setInstanceId(c.instanceId);
+            e.setStatus(statuses.get(c.status));
+            e.setUrl(c.url);
+            e.setHostname(c.hostname);
+            e.setPublicHostname(c.publicHostname);
+            e.setDocId(c.docId);
+            if (c.tail == null) return e;
+
+            Reader in = new Reader(c.tail);
+            int bits = (int) in.varLong();
+            if ((bits & LATENCY_MS) != 0) e.setLatencyMs(unZigZag(in.varLong()));
+            if ((bits & FILES_PROCESSED) != 0) e.setFilesProcessed(unZigZag(in.varLong()));
+            if ((bits & FILES_TOTAL) != 0) e.setFilesTotal(unZigZag(in.varLong()));
+            if ((bits & TOTAL_CHUNKS) != 0) e.setTotalChunks(unZigZag(in.varLong()));
+            if ((bits & PROCESSED_CHUNKS) != 0) e.setProcessedChunks(unZigZag(in.varLong()));
+            if ((bits & ERROR_COUNT) != 0) e.setErrorCount(unZigZag(in.varLong()));
+            if ((bits & PENDING_MESSAGES) != 0) e.setPendingMessages(unZigZag(in.varLong()));
+            if ((bits & PROCESSING_RATE) != 0) e.setProcessingRate(Double.longBitsToDouble(in.fixedLong()));
+            if ((bits & MEMORY_USED_MB) != 0) e.setMemoryUsedMB(Double.longBitsToDouble(in.fixedLong()));
+            if ((bits & MESSAGE) != 0) e.setMessage(in.string());
+            if ((bits & UPTIME) != 0) e.setUptime(in.string());
+            if ((bits & CURRENT_FILE) != 0) e.setCurrentFile(in.string());
+            if ((bits & FILENAME) != 0) e.setFilename(in.string());
+            return e;
+        }
+
+        String app(CompactEvent c) { return apps.get(c.app); }
+        String stage(CompactEvent c) { return stages.get(c.stage); }
+        String event(CompactEvent c) { return events.get(c.event); }
+        String instanceId(CompactEvent c) { return c.instanceId; }
+        String status(CompactEvent c) { return statuses.get(c.status); }
+
+        private void ensure(int n) {
+            if (pos + n > scratch.length) scratch = Arrays.copyOf(scratch, Math.max(scratch.length * 2, pos + n));
+        }
+
+        private void putVarLong(long v) {
+            ensure(10);
+            while ((v & ~0x7FL) != 0) {
+                scratch[pos++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            scratch[pos++] = (byte) v;
+        }
+
+        private void putLong(long v) {
+            ensure(8);
+            for (int i = 0; i < 8; i++) {
+                scratch[pos++] = (byte) v;
+                v >>>= 8;
+            }
+        }
+
+        private void putString(String s) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            putVarLong(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, scratch, pos, bytes.length);
+            pos += bytes.length;
+        }
+
+        private static long zigZag(long v) {
+            return (v << 1) ^ (v >> 63);
+        }
+
+        private static long unZigZag(long v) {
+            return (v >>> 1) ^ -(v & 1);
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buf;
+        private int pos;
+
+        Reader(byte[] buf) {
+            this.buf = buf;
+        }
+
+        long varLong() {
+            long result = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = buf[pos++];
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return result;
+            }
+        }
+
+        long fixedLong() {
+            long v = 0;
+            for (int i = 0; i < 8; i++) v |= (buf[pos++] & 0xFFL) << (8 * i);
+            return v;
+        }
+
+        String string() {
+            int len = (int) varLong();
+            String s = new String(buf, pos, len, StandardCharsets.UTF_8);
+            pos += len;
+            return s;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.insurancemegacorp.ragmon.service;
+
+import com.insurancemegacorp.ragmon.model.Event;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Storage for the retained window behind {@link EventStore}, selected by {@code ragmon.stream.backend}.
+ * {@link #append} and {@link #evictOlderThan} are only called under the store's ingest lock; every other
+ * method may be called from any thread without blocking the writer.
+ */
+interface EventBackend {
+
+    /** Told about every event leaving the window, so the store can keep its live counts. */
+    interface EvictionListener {
+        void onEvict(String app, String stage, String instanceId, String status);
+    }
+
+    /** Sequence the next {@link #append} will store; the caller stamps it on the event first. */
+    long headSequence();
+
+    /** Oldest retained sequence. */
+    long tailSequence();
+
+    int size();
+
+    /** Stores {@code e} under {@code e.getSeq()}, first evicting the oldest event if at the hard cap. */
+    void append(Event e);
+
+    /** Evicts leading events whose timestamp is before {@code cutoff}. */
+    void evictOlderThan(long cutoff);
+
+    /** Matching events as API objects, in sequence order; see {@link EventQuery} for limit semantics. */
+    List<Event> query(EventQuery q);
+
+    /** Number of retained events matching {@code q} per status, ignoring its {@code since} and {@code limit}. */
+    Map<String, Long> countByStatus(EventQuery q);
+}
@@ -0,0 +1,58 @@
+package com.insurancemegacorp.ragmon.service;
+
+import com.insurancemegacorp.ragmon.model.Event;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Subscription filter for event streams, compiled once per subscriber into a single predicate over only the
+ * constrained fields. Each parameter may hold a comma-separated list of accepted values.
+ */
+public final class EventFilter implements Predicate<Object> {
+    public static final EventFilter NONE = new EventFilter(null);
+
+    private final Predicate<Event> predicate;
+
+    private EventFilter(Predicate<Event> predicate) {
+        this.predicate = predicate;
+    }
+
+    public static EventFilter of(String app, String stage, String instanceId, String event, String status) {
+        Predicate<Event> p = null;
+        p = and(p, Event::getApp, app);
+        p = and(p, Event::getStage, stage);
+        p = and(p, Event::getInstanceId, instanceId);
+        p = and(p, Event::getEvent, event);
+        p = and(p, Event::getStatus, status);
+        return p == null ? NONE : new EventFilter(p);
+    }
+
+    private static Predicate<Event> and(Predicate<Event> p, Function<Event, String> field, String spec) {
+        if (spec == null || spec.isBlank()) return p;
+        Predicate<Event> next;
+        if (spec.indexOf(',') < 0) {
+            String value = spec.trim();
+            next = e -> value.equals(field.apply(e));
+        } else {
+            Set<String> values = Set.of(Arrays.stream(spec.split(","))
+                    .map(String::trim).filter(v -> !v.isEmpty()).distinct().toArray(String[]::new));
+            next = e -> {
+                String v = field.apply(e);
+                return v != null && values.contains(v);
+            };
+        }
+        return p == null ? next : p.and(next);
+    }
+
+    public boolean isEmpty() {
+        return predicate == null;
+    }
+
+    @Override
+    public boolean test(Object o) {
+        return predicate == null || (o instanceof Event e && predicate.test(e));
+    }
+}
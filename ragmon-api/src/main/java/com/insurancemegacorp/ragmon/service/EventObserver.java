@@ -0,0 +1,16 @@
+package com.insurancemegacorp.ragmon.service;
+
+import com.insurancemegacorp.ragmon.model.Event;
+
+/**
+ * Callback invoked by {@link EventStore} for every appended {@link Event}. Calls are serialized with
+ * ingest, so implementations see a single writer; they must be cheap and must not block.
+ */
+public interface EventObserver {
+    void onEvent(Event event);
+
+    /** Whether events replayed from the journal on startup are delivered too; false for observers that persist. */
+    default boolean observesReplay() {
+        return true;
+    }
+}
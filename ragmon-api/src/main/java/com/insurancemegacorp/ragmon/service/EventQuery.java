@@ -0,0 +1,32 @@
+package com.insurancemegacorp.ragmon.service;
+
+/**
+ * Filter over the retained window. Null fields are unconstrained. With {@code since} set, results are the first
+ * {@code limit} matches after that sequence; otherwise they are the newest {@code limit} matches. Either way they
+ * are returned in sequence order.
+ */
+public record EventQuery(String app, String instanceId, String status, String event, String docId,
+                         Long from, Long to, Long since, Integer limit) {
+
+    public static final EventQuery ALL = new EventQuery(null, null, null, null, null, null, null, null, null);
+
+    boolean hasFieldFilter() {
+        return app != null || instanceId != null || status != null || event != null || docId != null;
+    }
+
+    boolean matchesTime(long timestamp) {
+        return (from == null || timestamp >= from) && (to == null || timestamp <= to);
+    }
+
+    boolean matchesFields(String app, String instanceId, String status, String event, String docId) {
+        return (this.app == null || this.app.equals(app))
+                && (this.instanceId == null || this.instanceId.equals(instanceId))
+                && (this.status == null || this.status.equals(status))
+                && (this.event == null || this.event.equals(event))
+                && (this.docId == null || this.docId.equals(docId));
+    }
+
+    int effectiveLimit() {
+        return limit != null ? Math.max(0, limit) : Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,113 @@
+package com.insurancemegacorp.ragmon.service;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Bounded single-writer/multi-reader ring of events addressed by a monotonically increasing sequence.
+ * <p>
+ * Writer methods ({@link #append} and the evict methods) must be serialized by the caller. Readers never
+ * block: they read the published {@code [tail, head)} range and verify each slot's sequence, so a snapshot is
+ * always a contiguous suffix of the stream even if the writer evicts concurrently.
+ */
+final class EventRing {
+    record Entry(long seq, long timestamp, Object event) {}
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final int mask;
+    private final int maxEvents;
+    private final Consumer<Entry> onEvict;
+    private volatile long head; // next sequence to assign
+    private volatile long tail; // oldest retained sequence
+
+    EventRing(int maxEvents, Consumer<Entry> onEvict) {
+        if (maxEvents < 1) throw new IllegalArgumentException("maxEvents must be positive");
+        int capacity = Integer.highestOneBit(maxEvents);
+        if (capacity < maxEvents) capacity <<= 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.maxEvents = maxEvents;
+        this.onEvict = onEvict;
+    }
+
+    /** Appends an event, evicting the oldest one first if the ring is at its hard cap. Writer only. */
+    long append(Object event, long timestamp) {
+        long s = head;
+        if (s - tail >= maxEvents) evictOldest();
+        slots.set(index(s), new Entry(s, timestamp, event));
+        head = s + 1;
+        return s;
+    }
+
+    /** Evicts leading entries whose timestamp is before {@code cutoff}. Writer only. */
+    void evictOlderThan(long cutoff) {
+        while (tail < head) {
+            Entry e = slots.get(index(tail));
+            if (e != null && e.timestamp() >= cutoff) break;
+            evictOldest();
+        }
+    }
+
+    private void evictOldest() {
+        long t = tail;
+        Entry e = slots.get(index(t));
+        slots.set(index(t), null);
+        tail = t + 1;
+        if (e != null) onEvict.accept(e);
+    }
+
+    /** Visits retained entries with {@code seq >= fromSeq} in sequence order without blocking the writer. */
+    void forEach(long fromSeq, Consumer<Entry> action) {
+        scan(fromSeq, e -> {
+            action.accept(e);
+            return true;
+        });
+    }
+
+    /** Like {@link #forEach} but stops as soon as {@code visitor} returns false. */
+    void scan(long fromSeq, Predicate<Entry> visitor) {
+        long h = head;
+        long start = Math.max(Math.max(fromSeq, tail), h - maxEvents);
+        for (long s = start; s < h; s++) {
+            Entry e = slots.get(index(s));
+            // A mismatched or cleared slot was evicted after we read tail; later slots are still valid.
+            if (e != null && e.seq() == s && !visitor.test(e)) return;
+        }
+    }
+
+    /** Visits retained entries newest first until {@code visitor} returns false. */
+    void forEachDescending(Predicate<Entry> visitor) {
+        long h = head;
+        long floor = Math.max(tail, h - maxEvents);
+        for (long s = h - 1; s >= floor; s--) {
+            Entry e = slots.get(index(s));
+            if (e == null || e.seq() != s) return; // everything older has been evicted too
+            if (!visitor.test(e)) return;
+        }
+    }
+
+    /** The retained entry with the given sequence, or null if it was never written or has been evicted. */
+    Entry get(long seq) {
+        if (seq < 0 || seq >= head) return null;
+        Entry e = slots.get(index(seq));
+        return e != null && e.seq() == seq ? e : null;
+    }
+
+    int size() {
+        return (int) Math.max(0, head - tail);
+    }
+
+    /** Sequence the next {@link #append} will assign. */
+    long headSequence() {
+        return head;
+    }
+
+    long tailSequence() {
+        return tail;
+    }
+
+    private int index(long seq) {
+        return (int) (seq & mask);
+    }
+}
@@ -2,79 +2,281 @@ package com.insurancemegacorp.ragmon.service;
 
 import com.insurancemegacorp.ragmon.config.RagmonProperties;
 import com.insurancemegacorp.ragmon.model.Event;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Sinks;
 
 import java.time.Duration;
-import java.time.Instant;
-import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 public class EventStore {
-    private final Deque<Object> events = new ArrayDeque<>();
+    private static final Logger log = LoggerFactory.getLogger(EventStore.class);
+    private final EventBackend backend;
+    // Serializes ingest threads only; readers never take it
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // Batches are emitted after the write lock is released, so subscriber work never extends its hold time.
+    // Each batch takes a ticket under the write lock and is emitted when its turn comes, keeping emissions
+    // serialized and in sequence order.
+    private final ReentrantLock emitLock = new ReentrantLock();
+    private final Condition emitTurn = emitLock.newCondition();
+    private long nextEmitTicket; // guarded by writeLock
+    private long emitTicket; // guarded by emitLock
+    private final KeyedCounts byStatus = new KeyedCounts();
+    private final KeyedCounts byApp = new KeyedCounts();
+    private final KeyedCounts byStage = new KeyedCounts();
+    private final KeyedCounts byInstance = new KeyedCounts();
     private final Map<String, String> appToUrl = new ConcurrentHashMap<>();
-    private final Sinks.Many<Object> sink = Sinks.many().multicast().onBackpressureBuffer();
+    // Each emission is one ingest batch; subscribers see individual events via stream(). Best-effort so a
+    // subscriber without demand misses batches instead of holding everyone back; clients buffer per
+    // subscriber in StreamSubscribers.
+    private final Sinks.Many<List<Object>> sink = Sinks.many().multicast().directBestEffort();
     private final Duration retention;
+    // Sequences restart at 0 on every boot, so ids handed to clients are qualified by this
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final List<EventObserver> observers;
+    // Observers that also rebuild from journal replay; the rest only see live ingest
+    private final List<EventObserver> replayObservers;
+    private final MeterRegistry meters;
+    private final Counter evictions;
+    private final Timer lockWait;
 
-    public EventStore(RagmonProperties props) {
-        this.retention = Duration.ofSeconds(props.getStream().getRetentionWindowSeconds());
+    public EventStore(RagmonProperties props, List<EventObserver> observers, MeterRegistry meters) {
+        RagmonProperties.Stream cfg = props.getStream();
+        this.retention = Duration.ofSeconds(cfg.getRetentionWindowSeconds());
+        this.observers = List.copyOf(observers);
+        this.replayObservers = this.observers.stream().filter(EventObserver::observesReplay).toList();
+        boolean columnar = "columnar".equalsIgnoreCase(cfg.getBackend());
+        this.backend = columnar
+                ? new ColumnarEventBackend(cfg.getMaxEvents(), cfg.isParallelScans(), this::onEvict)
+                : new RingEventBackend(cfg.getMaxEvents(), this::onEvict);
+        this.meters = meters;
+        String backendTag = columnar ? "columnar" : "ring";
+        Gauge.builder("ragmon.store.size", backend, EventBackend::size)
+                .description("Events in the retained window").tag("backend", backendTag).register(meters);
+        this.evictions = Counter.builder("ragmon.store.evictions")
+                .description("Events evicted by age or capacity").tag("backend", backendTag).register(meters);
+        this.lockWait = Timer.builder("ragmon.store.lock.wait")
+                .description("Time ingest threads wait for the store's write lock").register(meters);
     }
 
-    public void add(Object event) {
-        synchronized (events) {
-            events.addLast(event);
-            if (event instanceof Event e && e.getApp() != null && e.getUrl() != null) {
-                appToUrl.put(e.getApp(), e.getUrl());
+    public void add(Event event) {
+        addAll(List.of(event), observers);
+    }
+
+    /** Bulk insert: takes the lock and evicts once, and publishes the whole batch as a single emission. */
+    public void addAll(List<? extends Event> batch) {
+        addAll(batch, observers);
+    }
+
+    /**
+     * Re-appends events recovered from the journal on startup. Only observers that derive in-memory state from
+     * events see them; sinks that persist events already hold them.
+     */
+    public void replayAll(List<? extends Event> batch) {
+        addAll(batch, replayObservers);
+    }
+
+    /**
+     * Publishes derived events on the live stream without storing them: they get no sequence, are not counted
+     * and no observer sees them, so they are never resumed, rolled up, journaled or written to history.
+     */
+    public void announce(List<? extends Event> events) {
+        if (events.isEmpty()) return;
+        lockForWrite();
+        long ticket = nextEmitTicket++;
+        writeLock.unlock();
+        emitInTurn(ticket, List.copyOf(events));
+    }
+
+    private void addAll(List<? extends Event> batch, List<EventObserver> notify) {
+        if (batch.isEmpty()) return;
+        int appended = 0;
+        lockForWrite();
+        long ticket = nextEmitTicket++;
+        try {
+            for (Event event : batch) {
+                append(event, notify);
+                appended++;
             }
             evictOld();
+        } finally {
+            writeLock.unlock();
+            // Runs even if an append failed, so a missed ticket can never stall later batches, and live
+            // subscribers still get the events that were stored before the failure
+            emitInTurn(ticket, List.copyOf(batch.subList(0, appended)));
         }
-        sink.tryEmitNext(event);
     }
 
-    private void evictOld() {
-        long cutoff = Instant.now().minus(retention).toEpochMilli();
-        while (!events.isEmpty()) {
-            Object o = events.peekFirst();
-            long ts;
-            if (o instanceof Event e) ts = e.getTimestamp(); else ts = System.currentTimeMillis();
-            if (ts < cutoff) events.removeFirst(); else break;
+    private void lockForWrite() {
+        long start = System.nanoTime();
+        writeLock.lock();
+        lockWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private void emitInTurn(long ticket, List<Object> batch) {
+        emitLock.lock();
+        try {
+            while (emitTicket != ticket) emitTurn.awaitUninterruptibly();
+            if (!batch.isEmpty()) emit(batch);
+        } finally {
+            emitTicket++;
+            emitTurn.signalAll();
+            emitLock.unlock();
         }
     }
 
-    public List<Object> recentEvents() {
-        synchronized (events) {
-            evictOld();
-            return new ArrayList<>(events);
+    private void emit(List<Object> batch) {
+        Sinks.EmitResult result = sink.tryEmitNext(batch);
+        // Having no subscribers is the normal idle state, not a lost emission
+        if (result.isFailure() && result != Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+            meters.counter("ragmon.stream.emit.failures", "sink", "events", "result", result.name()).increment();
+        }
+    }
+
+    private void append(Event e, List<EventObserver> notify) {
+        e.setSeq(backend.headSequence());
+        // Stored first, so the counters only ever cover events the backend holds and will later evict
+        backend.append(e);
+        byStatus.increment(e.getStatus());
+        byApp.increment(e.getApp());
+        byStage.increment(e.getStage());
+        byInstance.increment(instanceKey(e.getApp(), e.getInstanceId()));
+        if (e.getApp() != null && e.getUrl() != null) {
+            appToUrl.put(e.getApp(), e.getUrl());
+        }
+        for (EventObserver observer : notify) {
+            notify(observer, e);
+        }
+    }
+
+    /** A failing observer misses this event but neither loses it for the others nor fails the batch. */
+    private void notify(EventObserver observer, Event e) {
+        try {
+            observer.onEvent(e);
+        } catch (RuntimeException ex) {
+            String name = observer.getClass().getSimpleName();
+            log.warn("Observer {} failed on event {}: {}", name, e.getSeq(), ex.toString());
+            meters.counter("ragmon.store.observer.failures", "observer", name).increment();
+        }
+    }
+
+    private void onEvict(String app, String stage, String instanceId, String status) {
+        evictions.increment();
+        byStatus.decrement(status);
+        byApp.decrement(app);
+        byStage.decrement(stage);
+        byInstance.decrement(instanceKey(app, instanceId));
+    }
+
+    private static String instanceKey(String app, String instanceId) {
+        return app != null && instanceId != null ? app + "::" + instanceId : null;
+    }
+
+    private void evictOld() {
+        backend.evictOlderThan(System.currentTimeMillis() - retention.toMillis());
+    }
+
+    /** Lets readers apply time-based eviction when ingest is idle, without ever waiting on a writer. */
+    private void evictIfIdle() {
+        if (writeLock.tryLock()) {
+            try {
+                evictOld();
+            } finally {
+                writeLock.unlock();
+            }
         }
     }
 
+    public List<Event> recentEvents() {
+        evictIfIdle();
+        return backend.query(EventQuery.ALL);
+    }
+
+    /** Filtered, paginated read of the retained window. */
+    public List<Event> query(EventQuery q) {
+        evictIfIdle();
+        return backend.query(q);
+    }
+
     public Flux<Object> stream() {
-        return sink.asFlux();
+        return sink.asFlux().flatMapIterable(batch -> batch);
+    }
+
+    /**
+     * Live stream that first replays every retained event after {@code lastSeq}. The live subscription is
+     * opened before the replay is read and events already replayed are skipped, so there is no gap and no
+     * duplicate at the hand-over.
+     */
+    public Flux<Object> streamSince(long lastSeq) {
+        return Flux.defer(() -> {
+            Sinks.Many<Object> pending = Sinks.many().unicast().onBackpressureBuffer();
+            Disposable live = stream().subscribe(pending::tryEmitNext);
+            List<Event> missed = query(new EventQuery(null, null, null, null, null, null, null, lastSeq, null));
+            long replayedUpTo = missed.isEmpty() ? lastSeq : sequenceOf(missed.get(missed.size() - 1));
+            return Flux.<Object>fromIterable(missed)
+                    .concatWith(pending.asFlux().filter(e -> sequenceOf(e) > replayedUpTo))
+                    .doFinally(signal -> live.dispose());
+        });
+    }
+
+    /** Identifies this run of the store; a sequence number is only meaningful together with it. */
+    public String epoch() {
+        return epoch;
+    }
+
+    /**
+     * True if {@code lastSeq} of this epoch can be resumed without a gap: nothing after it has been evicted and it
+     * is not ahead of the newest event.
+     */
+    public boolean canResumeFrom(long lastSeq) {
+        return lastSeq + 1 >= backend.tailSequence() && lastSeq < backend.headSequence();
+    }
+
+    private static long sequenceOf(Object o) {
+        return o instanceof Event e && e.getSeq() != null ? e.getSeq() : Long.MAX_VALUE;
     }
 
     public Map<String, Long> metricsCountsByStatus() {
-        synchronized (events) {
-            return events.stream()
-                    .filter(o -> o instanceof Event)
-                    .map(o -> (Event) o)
-                    .collect(Collectors.groupingBy(Event::getStatus, Collectors.counting()));
-        }
+        evictIfIdle();
+        return byStatus.snapshot();
+    }
+
+    /**
+     * Per-status counts over just the events matching {@code q}'s field and time filters, computed by scanning the
+     * window rather than from the live counters.
+     */
+    public Map<String, Long> countsByStatus(EventQuery q) {
+        evictIfIdle();
+        return backend.countByStatus(q);
     }
 
     public Map<String, Long> countsByApp() {
-        synchronized (events) {
-            return events.stream()
-                    .filter(o -> o instanceof Event)
-                    .map(o -> (Event) o)
-                    .collect(Collectors.groupingBy(Event::getApp, Collectors.counting()));
-        }
+        evictIfIdle();
+        return byApp.snapshot();
+    }
+
+    public Map<String, Long> countsByStage() {
+        evictIfIdle();
+        return byStage.snapshot();
+    }
+
+    /** Counts keyed by {@code app::instanceId}, matching the instance registry's key. */
+    public Map<String, Long> countsByInstance() {
+        evictIfIdle();
+        return byInstance.snapshot();
     }
 
     public Map<String, String> apps() {
@@ -0,0 +1,71 @@
+package com.insurancemegacorp.ragmon.service;
+
+import com.insurancemegacorp.ragmon.model.Event;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Latest-value conflation for event streams. Heartbeat and plain status updates are coalesced per
+ * {@code app::instanceId} and only the newest one per instance is flushed each interval. Discrete events
+ * (FILE_PROCESSED, errors, anything without an instance) are never merged; any heartbeats still pending are
+ * flushed just ahead of them, so the output stays in sequence order.
+ */
+public final class HeartbeatConflator {
+
+    private HeartbeatConflator() {}
+
+    public static Flux<Object> conflate(Flux<Object> source, Duration interval) {
+        return Flux.create(sink -> {
+            // Guards pending and serializes every emission, whether from the source or the timer
+            Map<String, Object> pending = new LinkedHashMap<>();
+            Disposable ticks = Flux.interval(interval, interval).subscribe(tick -> {
+                synchronized (pending) {
+                    flush(pending, sink);
+                }
+            });
+            Disposable upstream = source.subscribe(o -> {
+                String key = conflationKey(o);
+                synchronized (pending) {
+                    if (key != null) {
+                        // Re-insert so flush order follows each key's newest event
+                        pending.remove(key);
+                        pending.put(key, o);
+                        return;
+                    }
+                    flush(pending, sink);
+                    sink.next(o);
+                }
+            }, sink::error, () -> {
+                synchronized (pending) {
+                    flush(pending, sink);
+                }
+                sink.complete();
+            });
+            sink.onDispose(() -> {
+                ticks.dispose();
+                upstream.dispose();
+            });
+        });
+    }
+
+    private static void flush(Map<String, Object> pending, FluxSink<Object> sink) {
+        for (Object o : pending.values()) {
+            sink.next(o);
+        }
+        pending.clear();
+    }
+
+    /** The per-instance key for conflatable events, or null if the event must pass through unmerged. */
+    static String conflationKey(Object o) {
+        if (!(o instanceof Event e) || e.getApp() == null || e.getInstanceId() == null) return null;
+        if (e.getStatus() != null && e.getStatus().toUpperCase().contains("ERROR")) return null;
+        String type = e.getEvent();
+        if (type != null && !"HEARTBEAT".equalsIgnoreCase(type)) return null;
+        return e.getApp() + "::" + e.getInstanceId();
+    }
+}
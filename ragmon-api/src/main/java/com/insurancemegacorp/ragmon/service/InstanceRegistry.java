@@ -1,84 +1,294 @@
 package com.insurancemegacorp.ragmon.service;
 
-import java.time.Instant;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.insurancemegacorp.ragmon.config.RagmonProperties;
+import com.insurancemegacorp.ragmon.model.Event;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Live view of every reporting instance. Each instance is an immutable {@link Instance} swapped atomically per
+ * key; writers are serialized on the registry monitor and bump a global version with every visible change,
+ * while readers never lock and share one cached list until the version moves.
+ */
+public class InstanceRegistry implements AutoCloseable {
+    /** One instance as served to clients; {@code status} is the effective status, OFFLINE once inactive. */
+    public record Instance(String service, String instanceId, String url, String status, long lastHeartbeatAt,
+                           long lastActivityAt, Long bootEpoch, String version, Map<String, Object> meta) {}
+
+    /**
+     * {@code event} values of the liveness transitions this registry announces on the event stream. They are
+     * stream-only, so they never count towards status totals, rollups or history.
+     */
+    public static final String ONLINE = "ONLINE";
+    public static final String OFFLINE = "OFFLINE";
+    public static final String REMOVED = "REMOVED";
+
+    public enum ChangeType { ADDED, UPDATED, STATUS, REMOVED }
 
-public class InstanceRegistry {
-    public static class Instance {
-        public String service;
-        public String instanceId;
-        public String url;
-        public String status;
-        public long lastHeartbeatAt;
-        public long lastActivityAt;
-        public Long bootEpoch;
-        public String version;
-        public Map<String,Object> meta;
+    /**
+     * One registry change. ADDED carries the whole instance, UPDATED only the fields that changed, STATUS the
+     * effective status transition (including to and from OFFLINE); REMOVED carries just the key.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record InstanceChange(long version, ChangeType type, String service, String instanceId, Instance instance,
+                                 Map<String, Object> fields, String previousStatus, String status) {}
+
+    /** Full state as of {@code version}; every later change has a higher version. */
+    public record Snapshot(long version, List<Instance> instances) {}
+
+    /**
+     * Stored state: the published instance plus the status the instance itself last reported, whether it is
+     * within the activity window as last decided by an update or the timer wheel, and the generation of the
+     * deadline currently armed for it.
+     */
+    private record Entry(Instance instance, String reportedStatus, boolean active, long timer) {
+        Entry withTimer(long generation) {
+            return new Entry(instance, reportedStatus, active, generation);
+        }
     }
 
-    private final Map<String, Instance> byKey = new ConcurrentHashMap<>();
-    // Liveness windows (ms)
-    private static final long ACTIVITY_WINDOW_MS = 30_000;  // Alive if activity within 30s
-    private static final long OFFLINE_WINDOW_MS  = 120_000; // Remove if no activity > 120s
+    /** A wheel deadline; it only counts while {@code generation} is still the entry's armed timer. */
+    private record Deadline(String key, long generation) {}
+
+    private final Map<String, Entry> byKey = new ConcurrentHashMap<>();
+    // Liveness windows (ms): alive if active within the first, removed after the second
+    private final long activityWindowMs;
+    private final long offlineWindowMs;
+    // Holds one live deadline per instance; a heartbeat only moves lastActivityAt and the timer re-arms
+    // itself from it when it fires, so heartbeats never touch the wheel. Coming back online arms a fresh
+    // deadline and leaves the old one to be discarded by generation when it fires.
+    private final TimerWheel<Deadline> wheel;
+    private long timerGenerations;
+    private final EventStore eventStore;
+    private final MeterRegistry meters;
+    private final LongSupplier clock;
+
+    // Changes are emitted while holding the registry monitor, so they are serialized and in version order
+    private final Sinks.Many<InstanceChange> changes = Sinks.many().multicast().directBestEffort();
+    private final Disposable ticker;
+    // Bumped after the entry is stored, so a reader that sees version v also sees every change up to v
+    private volatile long version;
+    // Moves only with changes that affect routing (membership, URL, status), never with heartbeats
+    private volatile long routingVersion;
+    private volatile Snapshot cached = new Snapshot(0, List.of());
+
+    public InstanceRegistry(RagmonProperties.Instances cfg, EventStore eventStore, MeterRegistry meters) {
+        this(cfg, eventStore, meters, System::currentTimeMillis, true);
+    }
+
+    /** With {@code ticking} false nothing advances the wheel on its own; tests drive it through {@link #advance()}. */
+    InstanceRegistry(RagmonProperties.Instances cfg, EventStore eventStore, MeterRegistry meters, LongSupplier clock,
+                     boolean ticking) {
+        this.activityWindowMs = Math.max(1, cfg.getActivityWindowSeconds()) * 1000L;
+        this.offlineWindowMs = Math.max(activityWindowMs, cfg.getOfflineWindowSeconds() * 1000L);
+        long tickMs = Math.max(1, cfg.getTimerTickMs());
+        this.clock = clock;
+        this.wheel = new TimerWheel<>(tickMs, (int) Math.min(1 << 16, offlineWindowMs / tickMs + 1), clock.getAsLong());
+        this.eventStore = eventStore;
+        this.meters = meters;
+        Gauge.builder("ragmon.instances", byKey, Map::size)
+                .description("Instances in the registry, including offline ones").register(meters);
+        this.ticker = ticking
+                ? Flux.interval(Duration.ofMillis(tickMs), Duration.ofMillis(tickMs)).subscribe(tick -> advance())
+                : null;
+    }
+
+    public static boolean isTransition(String event) {
+        return ONLINE.equalsIgnoreCase(event) || OFFLINE.equalsIgnoreCase(event) || REMOVED.equalsIgnoreCase(event);
+    }
 
     public void updateFromMessage(String service, String instanceId, String url, String status, boolean isHeartbeat, Long bootEpoch, String version, Map<String,Object> meta) {
-        if (service == null || instanceId == null) return;
+        Event online = update(service, instanceId, url, status, isHeartbeat, bootEpoch, version, meta, clock.getAsLong(), true);
+        if (online != null) eventStore.announce(List.of(online));
+    }
+
+    /**
+     * Replays a persisted observation, keeping its original time so liveness reflects how long ago it was seen.
+     * Restores never announce transition events; the live stream they belong to has already gone by.
+     */
+    public void restore(String service, String instanceId, String url, String status, boolean isHeartbeat, long observedAt) {
+        update(service, instanceId, url, status, isHeartbeat, null, null, null, observedAt, false);
+    }
+
+    /** Applies one observation and returns the ONLINE transition to announce, if it brought the instance back. */
+    private synchronized Event update(String service, String instanceId, String url, String status, boolean isHeartbeat, Long bootEpoch, String version, Map<String,Object> meta, long observedAt, boolean announce) {
+        if (service == null || instanceId == null) return null;
+        long now = clock.getAsLong();
         String key = service + "::" + instanceId;
-        Instance inst = byKey.computeIfAbsent(key, k -> new Instance());
-        inst.service = service;
-        inst.instanceId = instanceId;
-        if (url != null && !url.isBlank()) inst.url = url;
-        if (status != null) inst.status = status;
-        inst.lastActivityAt = Instant.now().toEpochMilli();
-        if (isHeartbeat) inst.lastHeartbeatAt = inst.lastActivityAt;
-        if (bootEpoch != null) inst.bootEpoch = bootEpoch;
-        if (version != null) inst.version = version;
-        inst.meta = meta;
+        Entry prev = byKey.get(key);
+        if (prev == null && now - observedAt > offlineWindowMs) return null; // would be removed on the next tick
+        Instance old = prev != null ? prev.instance() : null;
+
+        String reported = status != null ? status : prev != null ? prev.reportedStatus() : null;
+        long lastHeartbeatAt = isHeartbeat ? observedAt : old != null ? old.lastHeartbeatAt() : 0;
+        boolean active = now - Math.max(observedAt, lastHeartbeatAt) <= activityWindowMs;
+        String effective = effectiveStatus(active, reported);
+        Instance next = new Instance(service, instanceId,
+                url != null && !url.isBlank() ? url : old != null ? old.url() : null,
+                effective, lastHeartbeatAt, observedAt,
+                bootEpoch != null ? bootEpoch : old != null ? old.bootEpoch() : null,
+                version != null ? version : old != null ? old.version() : null,
+                meta != null ? Collections.unmodifiableMap(meta) : null);
+        boolean wasActive = prev != null && prev.active();
+        Entry entry = new Entry(next, reported, active, prev != null ? prev.timer() : 0);
+        byKey.put(key, entry);
+        // An inactive entry's deadline is at the end of the offline window; a returning instance needs one at
+        // the end of its new activity window instead
+        if (prev == null || active && !wasActive) arm(key, entry);
+
+        if (old == null) {
+            publish(ChangeType.ADDED, next, next, null, null, effective);
+        } else {
+            Map<String, Object> changed = changedFields(old, next);
+            if (!changed.isEmpty()) publish(ChangeType.UPDATED, next, null, changed, null, null);
+            if (!effective.equals(old.status())) publish(ChangeType.STATUS, next, null, null, old.status(), effective);
+        }
+        return announce && active && !wasActive ? transition(next, ONLINE, effective, null, now) : null;
     }
 
+    /** Every instance as of the latest version; an immutable list shared by all readers until the next change. */
     public List<Instance> list() {
-        long now = Instant.now().toEpochMilli();
-        List<Instance> instances = new ArrayList<>();
-        
-        for (Instance inst : byKey.values()) {
-            // Create a copy to avoid modifying the stored instance
-            Instance copy = new Instance();
-            copy.service = inst.service;
-            copy.instanceId = inst.instanceId;
-            copy.url = inst.url;
-            copy.lastHeartbeatAt = inst.lastHeartbeatAt;
-            copy.lastActivityAt = inst.lastActivityAt;
-            copy.bootEpoch = inst.bootEpoch;
-            copy.version = inst.version;
-            copy.meta = inst.meta;
-            
-            // Determine dynamic status based on activity
-            long lastActivity = Math.max(inst.lastActivityAt, inst.lastHeartbeatAt);
-            if (lastActivity > 0 && (now - lastActivity) <= ACTIVITY_WINDOW_MS) {
-                // Instance is active - use original status or default to RUNNING
-                copy.status = (inst.status != null && !inst.status.isBlank()) ? inst.status : "RUNNING";
-            } else {
-                // Instance is inactive
-                copy.status = "OFFLINE";
-            }
-            
-            instances.add(copy);
-        }
-        
-        return instances;
+        Snapshot s = cached;
+        long v = version;
+        if (s.version() == v) return s.instances();
+        List<Instance> instances = new ArrayList<>(byKey.size());
+        for (Entry e : byKey.values()) instances.add(e.instance());
+        // Tagged with the version read before iterating, so a concurrent change only causes another rebuild
+        Snapshot rebuilt = new Snapshot(v, Collections.unmodifiableList(instances));
+        cached = rebuilt;
+        return rebuilt.instances();
+    }
+
+    /**
+     * Version of the last change to which instances exist or to their URL or status. Reading it before
+     * {@link #list()} gives a list that reflects at least that change.
+     */
+    public long routingVersion() {
+        return routingVersion;
     }
 
-    public void prune() {
-        long now = Instant.now().toEpochMilli();
-        byKey.entrySet().removeIf(e -> {
-            Instance i = e.getValue();
-            long last = i.lastActivityAt > 0 ? i.lastActivityAt : i.lastHeartbeatAt;
-            return last > 0 && (now - last) > OFFLINE_WINDOW_MS;
+    /** Current state plus the version it reflects, taken atomically with respect to changes. */
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(version, list());
+    }
+
+    public Flux<InstanceChange> changes() {
+        return changes.asFlux();
+    }
+
+    /**
+     * A {@link Snapshot} followed by every later {@link InstanceChange}. Changes are subscribed to before the
+     * snapshot is taken and those it already reflects are skipped, so nothing is missed or applied twice.
+     */
+    public Flux<Object> snapshotThenChanges() {
+        return Flux.defer(() -> {
+            Sinks.Many<InstanceChange> pending = Sinks.many().unicast().onBackpressureBuffer();
+            Disposable live = changes().subscribe(pending::tryEmitNext);
+            Snapshot snapshot = snapshot();
+            return Flux.<Object>just(snapshot)
+                    .concatWith(pending.asFlux().filter(c -> c.version() > snapshot.version()))
+                    .doFinally(signal -> live.dispose());
         });
     }
-}
 
+    private void arm(String key, Entry entry) {
+        Instance inst = entry.instance();
+        long last = Math.max(inst.lastActivityAt(), inst.lastHeartbeatAt());
+        long generation = ++timerGenerations;
+        wheel.schedule(new Deadline(key, generation), last + (entry.active() ? activityWindowMs : offlineWindowMs) + 1);
+        byKey.put(key, entry.withTimer(generation));
+    }
+
+    void advance() {
+        long now = clock.getAsLong();
+        List<Event> transitions = new ArrayList<>();
+        synchronized (this) {
+            wheel.advance(now, deadline -> expire(deadline, now, transitions));
+        }
+        // Announced outside the monitor so the registry never holds its lock while waiting on the store
+        eventStore.announce(transitions);
+    }
+
+    /** A deadline fired: re-arm if the instance was active since, else mark it OFFLINE or remove it. */
+    private void expire(Deadline deadline, long now, List<Event> transitions) {
+        String key = deadline.key();
+        Entry entry = byKey.get(key);
+        if (entry == null || entry.timer() != deadline.generation()) return; // removed, or superseded by a re-arm
+        Instance inst = entry.instance();
+        long idle = now - Math.max(inst.lastActivityAt(), inst.lastHeartbeatAt());
+        if (idle > offlineWindowMs) {
+            byKey.remove(key);
+            publish(ChangeType.REMOVED, inst, null, null, inst.status(), null);
+            transitions.add(transition(inst, REMOVED, OFFLINE, "No activity for " + idle / 1000 + "s", now));
+            return;
+        }
+        if (idle > activityWindowMs && entry.active()) {
+            Instance offline = new Instance(inst.service(), inst.instanceId(), inst.url(), OFFLINE, inst.lastHeartbeatAt(),
+                    inst.lastActivityAt(), inst.bootEpoch(), inst.version(), inst.meta());
+            entry = new Entry(offline, entry.reportedStatus(), false, entry.timer());
+            byKey.put(key, entry);
+            if (!OFFLINE.equals(inst.status())) publish(ChangeType.STATUS, offline, null, null, inst.status(), OFFLINE);
+            transitions.add(transition(inst, OFFLINE, OFFLINE, "No activity for " + idle / 1000 + "s", now));
+        }
+        arm(key, entry);
+    }
+
+    private static Event transition(Instance inst, String type, String status, String message, long now) {
+        Event e = new Event();
+        e.setApp(inst.service());
+        e.setInstanceId(inst.instanceId());
+        e.setEvent(type);
+        e.setStatus(status);
+        e.setMessage(message);
+        e.setUrl(inst.url());
+        e.setTimestamp(now);
+        return e;
+    }
+
+    private void publish(ChangeType type, Instance inst, Instance full, Map<String, Object> fields, String previousStatus, String status) {
+        long v = version + 1;
+        if (type != ChangeType.UPDATED || fields.containsKey("url")) routingVersion = v;
+        version = v;
+        Sinks.EmitResult result = changes.tryEmitNext(new InstanceChange(v, type, inst.service(), inst.instanceId(), full, fields, previousStatus, status));
+        if (result.isFailure() && result != Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+            meters.counter("ragmon.stream.emit.failures", "sink", "instances", "result", result.name()).increment();
+        }
+    }
+
+    private static String effectiveStatus(boolean active, String reported) {
+        if (!active) return OFFLINE;
+        // Instance is active - use reported status or default to RUNNING
+        return (reported != null && !reported.isBlank()) ? reported : "RUNNING";
+    }
+
+    /** Fields other than status that differ; status changes are announced as STATUS transitions instead. */
+    private static Map<String, Object> changedFields(Instance before, Instance after) {
+        Map<String, Object> changed = new LinkedHashMap<>();
+        if (!Objects.equals(before.url(), after.url())) changed.put("url", after.url());
+        if (before.lastHeartbeatAt() != after.lastHeartbeatAt()) changed.put("lastHeartbeatAt", after.lastHeartbeatAt());
+        if (before.lastActivityAt() != after.lastActivityAt()) changed.put("lastActivityAt", after.lastActivityAt());
+        if (!Objects.equals(before.bootEpoch(), after.bootEpoch())) changed.put("bootEpoch", after.bootEpoch());
+        if (!Objects.equals(before.version(), after.version())) changed.put("version", after.version());
+        if (!Objects.equals(before.meta(), after.meta())) changed.put("meta", after.meta());
+        return changed;
+    }
 
+    @Override
+    public void close() {
+        if (ticker != null) ticker.dispose();
+    }
+}
@@ -0,0 +1,37 @@
+package com.insurancemegacorp.ragmon.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live counts per key, incremented on append and decremented on eviction so that reads cost
+ * O(number of keys) instead of a scan over the retained window. Mutated only by the store's writer;
+ * readers see a weakly consistent view.
+ */
+final class KeyedCounts {
+    private final Map<String, LongAdder> counts = new ConcurrentHashMap<>();
+
+    void increment(String key) {
+        if (key == null) return;
+        counts.computeIfAbsent(key, k -> new LongAdder()).increment();
+    }
+
+    void decrement(String key) {
+        if (key == null) return;
+        LongAdder adder = counts.get(key);
+        if (adder == null) return;
+        adder.decrement();
+        if (adder.sum() <= 0) counts.remove(key, adder);
+    }
+
+    Map<String, Long> snapshot() {
+        Map<String, Long> out = new HashMap<>(counts.size() * 2);
+        counts.forEach((k, v) -> {
+            long n = v.sum();
+            if (n > 0) out.put(k, n);
+        });
+        return out;
+    }
+}
@@ -0,0 +1,102 @@
+package com.insurancemegacorp.ragmon.service;
+
+import com.insurancemegacorp.ragmon.config.RagmonProperties;
+import com.insurancemegacorp.ragmon.model.Event;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks {@code latencyMs} per app and stage in windowed {@link LogHistogram}s. Each stage keeps a ring of
+ * fixed-duration windows that roll over by event time; queries merge the windows covering the requested span.
+ */
+@Service
+public class LatencyTracker implements EventObserver {
+
+    public record StageLatency(String app, String stage, long count, long p50, long p90, long p99, long max) {}
+
+    private static final String NO_STAGE = "";
+
+    // app -> stage -> histograms; two levels so the ingest path does not allocate a composite key
+    private final Map<String, Map<String, Windowed>> byApp = new ConcurrentHashMap<>();
+    private final long windowMs;
+    private final int windows;
+
+    public LatencyTracker(RagmonProperties props) {
+        this.windowMs = Math.max(1, props.getLatency().getWindowSeconds()) * 1000L;
+        this.windows = Math.max(1, props.getLatency().getWindows());
+    }
+
+    public long maxSpanMillis() {
+        return windowMs * windows;
+    }
+
+    @Override
+    public void onEvent(Event e) {
+        if (e.getLatencyMs() == null || e.getApp() == null) return;
+        Map<String, Windowed> stages = byApp.get(e.getApp());
+        if (stages == null) stages = byApp.computeIfAbsent(e.getApp(), k -> new ConcurrentHashMap<>());
+        String stage = e.getStage() != null ? e.getStage() : NO_STAGE;
+        Windowed w = stages.get(stage);
+        if (w == null) w = stages.computeIfAbsent(stage, k -> new Windowed(windows));
+        w.record(Math.floorDiv(e.getTimestamp(), windowMs), e.getLatencyMs());
+    }
+
+    /** Percentiles per app/stage over the windows overlapping {@code [now - spanMs, now]}. */
+    public List<StageLatency> query(String app, long spanMs) {
+        long now = System.currentTimeMillis();
+        long lastWindow = Math.floorDiv(now, windowMs);
+        long firstWindow = Math.max(lastWindow - windows + 1, Math.floorDiv(now - spanMs, windowMs));
+        List<StageLatency> out = new ArrayList<>();
+        LogHistogram merged = new LogHistogram();
+        byApp.forEach((a, stages) -> {
+            if (app != null && !app.equals(a)) return;
+            stages.forEach((stage, w) -> {
+                merged.reset();
+                w.mergeInto(merged, firstWindow, lastWindow);
+                if (merged.count() == 0) return;
+                out.add(new StageLatency(a, stage.isEmpty() ? null : stage, merged.count(),
+                        merged.percentile(50), merged.percentile(90), merged.percentile(99), merged.max()));
+            });
+        });
+        out.sort(Comparator.comparing(StageLatency::app)
+                .thenComparing(StageLatency::stage, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return out;
+    }
+
+    /** Ring of per-window histograms for one app/stage; guarded by its own monitor. */
+    private static final class Windowed {
+        private final LogHistogram[] ring;
+        private final long[] windowIds;
+
+        Windowed(int windows) {
+            ring = new LogHistogram[windows];
+            windowIds = new long[windows];
+            for (int i = 0; i < windows; i++) {
+                ring[i] = new LogHistogram();
+                windowIds[i] = Long.MIN_VALUE;
+            }
+        }
+
+        synchronized void record(long windowId, long value) {
+            int idx = (int) Math.floorMod(windowId, (long) ring.length);
+            if (windowIds[idx] < windowId) {
+                ring[idx].reset();
+                windowIds[idx] = windowId;
+            } else if (windowIds[idx] > windowId) {
+                return; // older than the ring retains
+            }
+            ring[idx].record(value);
+        }
+
+        synchronized void mergeInto(LogHistogram target, long firstWindow, long lastWindow) {
+            for (int i = 0; i < ring.length; i++) {
+                if (windowIds[i] >= firstWindow && windowIds[i] <= lastWindow) target.merge(ring[i]);
+            }
+        }
+    }
+}
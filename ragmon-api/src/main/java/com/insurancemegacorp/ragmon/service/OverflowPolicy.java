@@ -0,0 +1,19 @@
+package com.insurancemegacorp.ragmon.service;
+
+/** What a subscriber's bounded stream buffer does when a slow client lets it fill up. */
+public enum OverflowPolicy {
+    /** Discard the oldest buffered item to make room. */
+    DROP_OLDEST,
+    /** Replace a still-buffered heartbeat from the same instance with the newer one, queued at the tail; otherwise discard the oldest item. */
+    CONFLATE,
+    /** End the stream with a resume hint so the client reconnects and replays from where it stopped. */
+    DISCONNECT;
+
+    /** Case-insensitive lookup accepting {@code drop-oldest} or {@code drop_oldest}; null if unknown. */
+    public static OverflowPolicy fromLabel(String label) {
+        for (OverflowPolicy p : values()) {
+            if (p.name().equalsIgnoreCase(label.trim().replace('-', '_'))) return p;
+        }
+        return null;
+    }
+}
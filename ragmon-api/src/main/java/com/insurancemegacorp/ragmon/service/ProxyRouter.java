@@ -0,0 +1,172 @@
+package com.insurancemegacorp.ragmon.service;
+
+import com.insurancemegacorp.ragmon.config.RagmonProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Chooses which instance of an app a proxied call goes to. Candidates are the app's registry instances that have
+ * a URL and are not {@link InstanceRegistry#OFFLINE}; among them the balancer prefers the one with the fewest
+ * calls in flight. An instance that could not be reached is passed over for {@code failureCooldownMs}, since
+ * failing fast would otherwise make it look the least loaded. Apps that only send the legacy format never
+ * register instances, so they fall back to the last URL the event store saw.
+ */
+@Service
+public class ProxyRouter {
+    private static final Logger log = LoggerFactory.getLogger(ProxyRouter.class);
+
+    public enum Balancer {
+        LEAST_OUTSTANDING, POWER_OF_TWO;
+
+        /** Case-insensitive lookup accepting {@code power-of-two} or {@code power_of_two}; null if unknown. */
+        public static Balancer fromLabel(String label) {
+            for (Balancer b : values()) {
+                if (b.name().equalsIgnoreCase(label.trim().replace('-', '_'))) return b;
+            }
+            return null;
+        }
+    }
+
+    /** One routed call. {@link #release} it once the upstream exchange has finished. */
+    public final class Lease {
+        private final String instanceId;
+        private final String url;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Lease(String instanceId, String url) {
+            this.instanceId = instanceId;
+            this.url = url;
+            outstanding.merge(url, 1, Integer::sum);
+        }
+
+        /** Null when routed through the event store fallback. */
+        public String instanceId() { return instanceId; }
+        public String url() { return url; }
+
+        /** Marks the instance unreachable so it is skipped while others are available. */
+        public void fail() {
+            failedUntil.put(url, System.currentTimeMillis() + failureCooldownMs);
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                outstanding.computeIfPresent(url, (k, n) -> n > 1 ? n - 1 : null);
+            }
+        }
+    }
+
+    private final InstanceRegistry registry;
+    private final EventStore store;
+    private final Balancer balancer;
+    private final long failureCooldownMs;
+    // Calls in flight per upstream URL; a URL is dropped as soon as it has none
+    private final Map<String, Integer> outstanding = new ConcurrentHashMap<>();
+    private final Map<String, Long> failedUntil = new ConcurrentHashMap<>();
+    private volatile AppIndex index = new AppIndex(-1, Map.of());
+
+    /**
+     * Registry instances grouped by app as of a registry routing version. Heartbeats don't move that version, so
+     * the index is only rebuilt when an instance comes, goes, moves or changes status.
+     */
+    private record AppIndex(long routingVersion, Map<String, List<InstanceRegistry.Instance>> byApp) {}
+
+    public ProxyRouter(InstanceRegistry registry, EventStore store, RagmonProperties props) {
+        this.registry = registry;
+        this.store = store;
+        String configured = props.getProxy().getBalancer();
+        Balancer selected = configured != null ? Balancer.fromLabel(configured) : null;
+        if (selected == null) {
+            log.warn("Unknown ragmon.proxy.balancer '{}'; using power-of-two", configured);
+            selected = Balancer.POWER_OF_TWO;
+        }
+        this.balancer = selected;
+        this.failureCooldownMs = Math.max(0, props.getProxy().getFailureCooldownMs());
+    }
+
+    /**
+     * Routes a call to {@code app}, or to exactly {@code instanceId} when given (whatever its status). Returns
+     * null if there is nowhere to send it.
+     */
+    public Lease acquire(String app, String instanceId) {
+        List<InstanceRegistry.Instance> candidates = new ArrayList<>();
+        for (InstanceRegistry.Instance i : instancesOf(app)) {
+            if (i.url() == null || i.url().isBlank()) continue;
+            if (instanceId != null) {
+                if (instanceId.equals(i.instanceId())) return new Lease(i.instanceId(), i.url());
+            } else if (!InstanceRegistry.OFFLINE.equals(i.status())) {
+                candidates.add(i);
+            }
+        }
+        if (instanceId != null) return null;
+        if (candidates.isEmpty()) {
+            String url = store.apps().get(app);
+            return url == null || url.isBlank() ? null : new Lease(null, url);
+        }
+        if (!failedUntil.isEmpty()) skipFailed(candidates);
+        InstanceRegistry.Instance chosen = candidates.size() == 1 ? candidates.get(0)
+                : balancer == Balancer.POWER_OF_TWO ? powerOfTwo(candidates) : leastOutstanding(candidates);
+        return new Lease(chosen.instanceId(), chosen.url());
+    }
+
+    private List<InstanceRegistry.Instance> instancesOf(String app) {
+        long routingVersion = registry.routingVersion();
+        AppIndex current = index;
+        if (current.routingVersion() != routingVersion) {
+            Map<String, List<InstanceRegistry.Instance>> byApp = new HashMap<>();
+            for (InstanceRegistry.Instance i : registry.list()) {
+                byApp.computeIfAbsent(i.service(), k -> new ArrayList<>()).add(i);
+            }
+            current = new AppIndex(routingVersion, byApp);
+            index = current;
+        }
+        return current.byApp().getOrDefault(app, List.of());
+    }
+
+    /** Drops instances still cooling down after a failure, unless that would leave none. */
+    private void skipFailed(List<InstanceRegistry.Instance> candidates) {
+        long now = System.currentTimeMillis();
+        failedUntil.values().removeIf(until -> until <= now);
+        if (candidates.stream().allMatch(i -> failedUntil.containsKey(i.url()))) return;
+        candidates.removeIf(i -> failedUntil.containsKey(i.url()));
+    }
+
+    private InstanceRegistry.Instance powerOfTwo(List<InstanceRegistry.Instance> candidates) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        int a = rnd.nextInt(candidates.size());
+        int b = rnd.nextInt(candidates.size() - 1);
+        if (b >= a) b++;
+        InstanceRegistry.Instance x = candidates.get(a);
+        InstanceRegistry.Instance y = candidates.get(b);
+        return outstanding(y) < outstanding(x) ? y : x;
+    }
+
+    private InstanceRegistry.Instance leastOutstanding(List<InstanceRegistry.Instance> candidates) {
+        // Start at a random offset so ties don't always land on the same instance
+        int n = candidates.size();
+        int start = ThreadLocalRandom.current().nextInt(n);
+        InstanceRegistry.Instance best = null;
+        int bestLoad = Integer.MAX_VALUE;
+        for (int k = 0; k < n; k++) {
+            InstanceRegistry.Instance i = candidates.get((start + k) % n);
+            int load = outstanding(i);
+            if (load < bestLoad) {
+                best = i;
+                bestLoad = load;
+            }
+        }
+        return best;
+    }
+
+    private int outstanding(InstanceRegistry.Instance i) {
+        return outstanding.getOrDefault(i.url(), 0);
+    }
+}
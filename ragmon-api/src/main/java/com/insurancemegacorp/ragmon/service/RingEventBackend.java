@@ -0,0 +1,139 @@
+package com.insurancemegacorp.ragmon.service;
+
+import com.insurancemegacorp.ragmon.model.Event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Default backend: {@link CompactEvent}s in an {@link EventRing}, with secondary indexes from each filterable
+ * field to its postings so that selective queries cost the size of one key's postings rather than the window.
+ */
+final class RingEventBackend implements EventBackend {
+    private final EventRing ring;
+    private final EvictionListener listener;
+    private final SequenceIndex appIndex = new SequenceIndex();
+    private final SequenceIndex instanceIndex = new SequenceIndex();
+    private final SequenceIndex statusIndex = new SequenceIndex();
+    private final SequenceIndex eventTypeIndex = new SequenceIndex();
+    private final SequenceIndex docIdIndex = new SequenceIndex();
+    // Events are retained in compact form and rebuilt as Event only when read
+    private final CompactEvent.Codec codec = new CompactEvent.Codec();
+
+    RingEventBackend(int maxEvents, EvictionListener listener) {
+        this.ring = new EventRing(maxEvents, this::onEvict);
+        this.listener = listener;
+    }
+
+    @Override public long headSequence() { return ring.headSequence(); }
+    @Override public long tailSequence() { return ring.tailSequence(); }
+    @Override public int size() { return ring.size(); }
+
+    @Override
+    public void append(Event e) {
+        long seq = e.getSeq();
+        appIndex.add(e.getApp(), seq);
+        instanceIndex.add(e.getInstanceId(), seq);
+        statusIndex.add(e.getStatus(), seq);
+        eventTypeIndex.add(e.getEvent(), seq);
+        docIdIndex.add(e.getDocId(), seq);
+        ring.append(codec.encode(e), e.getTimestamp());
+    }
+
+    @Override
+    public void evictOlderThan(long cutoff) {
+        ring.evictOlderThan(cutoff);
+    }
+
+    private void onEvict(EventRing.Entry entry) {
+        CompactEvent c = (CompactEvent) entry.event();
+        long seq = entry.seq();
+        String app = codec.app(c);
+        String instanceId = codec.instanceId(c);
+        String status = codec.status(c);
+        appIndex.remove(app, seq);
+        instanceIndex.remove(instanceId, seq);
+        statusIndex.remove(status, seq);
+        eventTypeIndex.remove(codec.event(c), seq);
+        docIdIndex.remove(c.docId, seq);
+        codec.release(c);
+        listener.onEvict(app, codec.stage(c), instanceId, status);
+    }
+
+    private Event materialize(EventRing.Entry e) {
+        return codec.decode(e.seq(), e.timestamp(), (CompactEvent) e.event());
+    }
+
+    private boolean matches(EventQuery q, EventRing.Entry e) {
+        if (!q.matchesTime(e.timestamp())) return false;
+        if (!q.hasFieldFilter()) return true;
+        CompactEvent c = (CompactEvent) e.event();
+        return q.matchesFields(codec.app(c), codec.instanceId(c), codec.status(c), codec.event(c), c.docId);
+    }
+
+    /**
+     * When a field filter is present, the most selective matching index drives the scan, so the cost follows the
+     * size of that key's postings rather than the window.
+     */
+    @Override
+    public List<Event> query(EventQuery q) {
+        int limit = q.effectiveLimit();
+        if (limit == 0) return List.of();
+        List<Event> out = new ArrayList<>(Math.min(limit, 1024));
+
+        SequenceIndex.Postings driver = null;
+        String[] keys = {q.app(), q.instanceId(), q.status(), q.event(), q.docId()};
+        SequenceIndex[] indexes = {appIndex, instanceIndex, statusIndex, eventTypeIndex, docIdIndex};
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == null) continue;
+            SequenceIndex.Postings p = indexes[i].get(keys[i]);
+            if (p == null) return List.of();
+            if (driver == null || p.size() < driver.size()) driver = p;
+        }
+
+        if (driver == null) {
+            if (q.since() != null) {
+                ring.scan(q.since() + 1, e -> {
+                    if (matches(q, e)) out.add(materialize(e));
+                    return out.size() < limit;
+                });
+            } else {
+                ring.forEachDescending(e -> {
+                    if (matches(q, e)) out.add(materialize(e));
+                    return out.size() < limit;
+                });
+                Collections.reverse(out);
+            }
+            return out;
+        }
+
+        long[] chunk = new long[256];
+        boolean ascending = q.since() != null;
+        long cursor = ascending ? q.since() : Long.MAX_VALUE;
+        while (out.size() < limit) {
+            int n = ascending ? driver.copyAfter(cursor, chunk) : driver.copyBefore(cursor, chunk);
+            if (n == 0) break;
+            for (int i = 0; i < n && out.size() < limit; i++) {
+                EventRing.Entry e = ring.get(chunk[i]);
+                if (e != null && matches(q, e)) out.add(materialize(e));
+            }
+            cursor = chunk[n - 1];
+        }
+        if (!ascending) Collections.reverse(out);
+        return out;
+    }
+
+    @Override
+    public Map<String, Long> countByStatus(EventQuery q) {
+        Map<String, Long> counts = new HashMap<>();
+        ring.forEach(0, e -> {
+            if (!matches(q, e)) return;
+            String status = codec.status((CompactEvent) e.event());
+            if (status != null) counts.merge(status, 1L, Long::sum);
+        });
+        return counts;
+    }
+}
@@ -0,0 +1,307 @@
+package com.insurancemegacorp.ragmon.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.insurancemegacorp.ragmon.config.RagmonProperties;
+import com.insurancemegacorp.ragmon.model.Event;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Folds every ingested {@link Event} into fixed-size time buckets (1s, 10s, 1m) per app, stage and instance.
+ * Each series keeps one ring per resolution, stored as parallel primitive arrays, so memory per series is bounded
+ * regardless of traffic and the 1m buckets cover hours of history. Columns are only allocated for what a series
+ * actually reports: status counters grow with the distinct statuses seen, and the error and metric columns appear
+ * with their first value, so a plain heartbeat series costs about 16 bytes per bucket rather than 160. Once a
+ * series goes quiet, each ring is released as soon as its whole span has passed.
+ */
+@Service
+public class RollupEngine implements EventObserver {
+
+    public enum Resolution {
+        ONE_SECOND("1s", 1_000),
+        TEN_SECONDS("10s", 10_000),
+        ONE_MINUTE("1m", 60_000);
+
+        private final String label;
+        private final long millis;
+
+        Resolution(String label, long millis) {
+            this.label = label;
+            this.millis = millis;
+        }
+
+        public String label() { return label; }
+        public long millis() { return millis; }
+
+        public static Resolution fromLabel(String label) {
+            for (Resolution r : values()) {
+                if (r.label.equalsIgnoreCase(label)) return r;
+            }
+            return null;
+        }
+    }
+
+    public record Stats(long count, double min, double max, double avg, double last) {}
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Point(long t, long events, Map<String, Long> statusCounts, long errorDelta,
+                        Stats processingRate, Stats memoryUsedMB, Stats latencyMs) {}
+
+    public record SeriesView(String app, String stage, String instanceId, String resolution, List<Point> points) {}
+
+    private record SeriesKey(String app, String stage, String instanceId) {}
+
+    private static final long PRUNE_INTERVAL_MS = 60_000;
+    // Distinct statuses tracked per series; any beyond the first STATUS_SLOTS - 1 are counted as OTHER
+    private static final int STATUS_SLOTS = 8;
+    private static final String OTHER_STATUS = "OTHER";
+
+    private final Map<SeriesKey, Series> series = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final int[] slots = new int[Resolution.values().length];
+    private final long[] retentionMs = new long[Resolution.values().length];
+    private long lastPruneAt;
+
+    public RollupEngine(RagmonProperties props) {
+        RagmonProperties.Rollups cfg = props.getRollups();
+        this.enabled = cfg.isEnabled();
+        slots[Resolution.ONE_SECOND.ordinal()] = slotsFor(cfg.getOneSecondRetentionSeconds(), Resolution.ONE_SECOND);
+        slots[Resolution.TEN_SECONDS.ordinal()] = slotsFor(cfg.getTenSecondRetentionSeconds(), Resolution.TEN_SECONDS);
+        slots[Resolution.ONE_MINUTE.ordinal()] = slotsFor(cfg.getOneMinuteRetentionSeconds(), Resolution.ONE_MINUTE);
+        for (Resolution r : Resolution.values()) retentionMs[r.ordinal()] = slots[r.ordinal()] * r.millis();
+    }
+
+    private static int slotsFor(int retentionSeconds, Resolution r) {
+        return (int) Math.max(1, retentionSeconds * 1000L / r.millis());
+    }
+
+    public long retentionMillis(Resolution r) {
+        return retentionMs[r.ordinal()];
+    }
+
+    @Override
+    public void onEvent(Event e) {
+        if (!enabled || e.getApp() == null) return;
+        Series s = series.computeIfAbsent(new SeriesKey(e.getApp(), e.getStage(), e.getInstanceId()), k -> new Series());
+        synchronized (s) {
+            s.fold(e, slots);
+        }
+        long now = System.currentTimeMillis();
+        if (now - lastPruneAt > PRUNE_INTERVAL_MS) {
+            lastPruneAt = now;
+            series.values().removeIf(x -> {
+                synchronized (x) {
+                    return x.releaseIdle(now, retentionMs);
+                }
+            });
+        }
+    }
+
+    public List<SeriesView> query(Resolution r, String app, String stage, String instanceId, long from, long to) {
+        List<SeriesView> out = new ArrayList<>();
+        series.forEach((key, s) -> {
+            if (app != null && !app.equals(key.app())) return;
+            if (stage != null && !stage.equals(key.stage())) return;
+            if (instanceId != null && !instanceId.equals(key.instanceId())) return;
+            List<Point> points;
+            synchronized (s) {
+                points = s.points(r, from, to);
+            }
+            if (!points.isEmpty()) {
+                out.add(new SeriesView(key.app(), key.stage(), key.instanceId(), r.label(), points));
+            }
+        });
+        out.sort(Comparator.comparing(SeriesView::app)
+                .thenComparing(SeriesView::stage, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(SeriesView::instanceId, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return out;
+    }
+
+    /** Bucket rings for one (app, stage, instance); guarded by its own monitor. */
+    private static final class Series {
+        private final Ring[] rings = new Ring[Resolution.values().length];
+        // Status name per slot, assigned in order of first appearance
+        private final String[] statuses = new String[STATUS_SLOTS];
+        private Long lastErrorCount;
+        private long lastUpdatedAt;
+
+        void fold(Event e, int[] slots) {
+            long errorDelta = 0;
+            if (e.getErrorCount() != null) {
+                long current = e.getErrorCount();
+                // A drop in the cumulative counter means the instance restarted
+                if (lastErrorCount != null) errorDelta = current >= lastErrorCount ? current - lastErrorCount : current;
+                lastErrorCount = current;
+            }
+            lastUpdatedAt = System.currentTimeMillis();
+            int status = statusSlot(e.getStatus());
+            for (Resolution r : Resolution.values()) {
+                Ring ring = rings[r.ordinal()];
+                if (ring == null) ring = rings[r.ordinal()] = new Ring(slots[r.ordinal()]);
+                ring.add(r.millis(), e, status, errorDelta);
+            }
+        }
+
+        private int statusSlot(String status) {
+            String name = Objects.requireNonNullElse(status, "UNKNOWN");
+            for (int i = 0; i < STATUS_SLOTS - 1; i++) {
+                if (statuses[i] == null) statuses[i] = name;
+                if (statuses[i].equals(name)) return i;
+            }
+            statuses[STATUS_SLOTS - 1] = OTHER_STATUS;
+            return STATUS_SLOTS - 1;
+        }
+
+        /** Drops every ring whose span has passed since the last event; true once none are left. */
+        boolean releaseIdle(long now, long[] retentionMs) {
+            boolean empty = true;
+            for (int i = 0; i < rings.length; i++) {
+                if (rings[i] != null && lastUpdatedAt < now - retentionMs[i]) rings[i] = null;
+                if (rings[i] != null) empty = false;
+            }
+            return empty;
+        }
+
+        List<Point> points(Resolution r, long from, long to) {
+            Ring ring = rings[r.ordinal()];
+            return ring == null ? List.of() : ring.points(from, to, statuses);
+        }
+    }
+
+    /**
+     * One resolution's buckets as parallel arrays indexed by slot; a slot holds the window starting at starts[i].
+     * Only starts and events are allocated up front; the other columns are null until first needed.
+     */
+    private static final class Ring {
+        final long[] starts;
+        final int[] events;
+        long[] errorDelta;
+        // statusWidth counters per slot, widened as the series reports new statuses
+        int[] statusCounts;
+        int statusWidth;
+        Summaries processingRate;
+        Summaries memoryUsedMB;
+        Summaries latencyMs;
+
+        Ring(int slots) {
+            starts = new long[slots];
+            Arrays.fill(starts, Long.MIN_VALUE);
+            events = new int[slots];
+            statusCounts = new int[slots];
+            statusWidth = 1;
+        }
+
+        void add(long millis, Event e, int status, long errorDelta) {
+            long window = Math.floorDiv(e.getTimestamp(), millis);
+            long start = window * millis;
+            int i = (int) Math.floorMod(window, (long) starts.length);
+            if (starts[i] > start) return; // older than this ring retains
+            if (starts[i] < start) reset(i, start);
+            events[i]++;
+            if (errorDelta != 0) {
+                if (this.errorDelta == null) this.errorDelta = new long[starts.length];
+                this.errorDelta[i] += errorDelta;
+            }
+            if (status >= statusWidth) widenStatuses(status + 1);
+            statusCounts[i * statusWidth + status]++;
+            if (e.getProcessingRate() != null) {
+                if (processingRate == null) processingRate = new Summaries(starts.length);
+                processingRate.add(i, e.getProcessingRate());
+            }
+            if (e.getMemoryUsedMB() != null) {
+                if (memoryUsedMB == null) memoryUsedMB = new Summaries(starts.length);
+                memoryUsedMB.add(i, e.getMemoryUsedMB());
+            }
+            if (e.getLatencyMs() != null) {
+                if (latencyMs == null) latencyMs = new Summaries(starts.length);
+                latencyMs.add(i, e.getLatencyMs());
+            }
+        }
+
+        /** Re-lays the status counters out with {@code width} per slot; at most STATUS_SLOTS - 1 times per ring. */
+        private void widenStatuses(int width) {
+            int[] widened = new int[starts.length * width];
+            for (int i = 0; i < starts.length; i++) {
+                System.arraycopy(statusCounts, i * statusWidth, widened, i * width, statusWidth);
+            }
+            statusCounts = widened;
+            statusWidth = width;
+        }
+
+        private void reset(int i, long start) {
+            starts[i] = start;
+            events[i] = 0;
+            if (errorDelta != null) errorDelta[i] = 0;
+            Arrays.fill(statusCounts, i * statusWidth, (i + 1) * statusWidth, 0);
+            if (processingRate != null) processingRate.reset(i);
+            if (memoryUsedMB != null) memoryUsedMB.reset(i);
+            if (latencyMs != null) latencyMs.reset(i);
+        }
+
+        List<Point> points(long from, long to, String[] statuses) {
+            List<Point> points = new ArrayList<>();
+            for (int i = 0; i < starts.length; i++) {
+                if (events[i] > 0 && starts[i] >= from && starts[i] <= to) points.add(point(i, statuses));
+            }
+            points.sort(Comparator.comparingLong(Point::t));
+            return points;
+        }
+
+        private Point point(int i, String[] statuses) {
+            Map<String, Long> counts = new HashMap<>(4);
+            for (int k = 0; k < statusWidth; k++) {
+                int c = statusCounts[i * statusWidth + k];
+                if (c > 0) counts.put(statuses[k], (long) c);
+            }
+            return new Point(starts[i], events[i], Map.copyOf(counts), errorDelta != null ? errorDelta[i] : 0,
+                    stats(processingRate, i), stats(memoryUsedMB, i), stats(latencyMs, i));
+        }
+
+        private static Stats stats(Summaries summaries, int i) {
+            return summaries == null ? null : summaries.toStats(i);
+        }
+    }
+
+    /** Count, sum, min, max and last of one metric for every slot of a ring. */
+    private static final class Summaries {
+        final int[] count;
+        final double[] sum, min, max, last;
+
+        Summaries(int slots) {
+            count = new int[slots];
+            sum = new double[slots];
+            min = new double[slots];
+            max = new double[slots];
+            last = new double[slots];
+        }
+
+        void reset(int i) {
+            count[i] = 0;
+        }
+
+        void add(int i, double v) {
+            if (count[i] == 0) {
+                sum[i] = 0;
+                min[i] = max[i] = v;
+            } else {
+                if (v < min[i]) min[i] = v;
+                if (v > max[i]) max[i] = v;
+            }
+            count[i]++;
+            sum[i] += v;
+            last[i] = v;
+        }
+
+        Stats toStats(int i) {
+            return count[i] == 0 ? null : new Stats(count[i], min[i], max[i], sum[i] / count[i], last[i]);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.insurancemegacorp.ragmon.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Secondary index from a field value to the ascending sequence numbers of the retained events carrying it.
+ * Appends and evictions come from the store's single writer; since both happen in sequence order, an evicted
+ * sequence is always the head of its key's postings.
+ */
+final class SequenceIndex {
+    private final Map<String, Postings> byKey = new ConcurrentHashMap<>();
+
+    void add(String key, long seq) {
+        if (key == null) return;
+        byKey.computeIfAbsent(key, k -> new Postings()).add(seq);
+    }
+
+    void remove(String key, long seq) {
+        if (key == null) return;
+        Postings p = byKey.get(key);
+        if (p != null && p.removeFirstIf(seq) && p.isEmpty()) byKey.remove(key, p);
+    }
+
+    Postings get(String key) {
+        return byKey.get(key);
+    }
+
+    /**
+     * Ascending sequences in a growable circular buffer. Readers copy bounded chunks under the monitor so the
+     * writer is never held up for longer than one chunk.
+     */
+    static final class Postings {
+        private long[] seqs = new long[4];
+        private int head;
+        private int size;
+
+        synchronized void add(long seq) {
+            if (size == seqs.length) grow();
+            seqs[(head + size) & (seqs.length - 1)] = seq;
+            size++;
+        }
+
+        synchronized boolean removeFirstIf(long seq) {
+            if (size == 0 || seqs[head] != seq) return false;
+            head = (head + 1) & (seqs.length - 1);
+            size--;
+            return true;
+        }
+
+        synchronized boolean isEmpty() {
+            return size == 0;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        /** Copies up to {@code out.length} sequences greater than {@code afterSeq}, ascending. */
+        synchronized int copyAfter(long afterSeq, long[] out) {
+            int n = 0;
+            for (int i = lowerBound(afterSeq + 1); i < size && n < out.length; i++) out[n++] = at(i);
+            return n;
+        }
+
+        /** Copies up to {@code out.length} sequences less than {@code beforeSeq}, descending. */
+        synchronized int copyBefore(long beforeSeq, long[] out) {
+            int n = 0;
+            for (int i = lowerBound(beforeSeq) - 1; i >= 0 && n < out.length; i--) out[n++] = at(i);
+            return n;
+        }
+
+        private long at(int i) {
+            return seqs[(head + i) & (seqs.length - 1)];
+        }
+
+        private int lowerBound(long seq) {
+            int lo = 0, hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (at(mid) < seq) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+
+        private void grow() {
+            long[] next = new long[seqs.length << 1];
+            for (int i = 0; i < size; i++) next[i] = at(i);
+            seqs = next;
+            head = 0;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.insurancemegacorp.ragmon.service;
+
+/** Terminates a subscriber whose buffer overflowed under {@link OverflowPolicy#DISCONNECT}. */
+public class SlowConsumerException extends RuntimeException {
+    private final Long resumeFrom;
+
+    public SlowConsumerException(Long resumeFrom) {
+        super("Subscriber buffer overflowed");
+        this.resumeFrom = resumeFrom;
+    }
+
+    /** Sequence of the last event delivered before the disconnect, or null if none was delivered. */
+    public Long getResumeFrom() {
+        return resumeFrom;
+    }
+}
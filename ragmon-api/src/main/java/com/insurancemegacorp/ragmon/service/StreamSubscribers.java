@@ -0,0 +1,94 @@
+package com.insurancemegacorp.ragmon.service;
+
+import com.insurancemegacorp.ragmon.config.RagmonProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gives every streaming client its own bounded buffer, so a stalled browser tab only ever loses its own
+ * events and memory per client stays at {@code ragmon.stream.subscriberBufferSize} items. Live buffers are
+ * tracked for the lag and drop counters served by {@code /api/streams/subscribers}, and per stream name as the
+ * {@code ragmon.stream.subscribers}, {@code ragmon.stream.sent} and {@code ragmon.stream.dropped} meters.
+ */
+@Service
+public class StreamSubscribers {
+
+    public record SubscriberStats(long id, String stream, OverflowPolicy policy, long connectedAt, int buffered,
+                                  int capacity, long delivered, long dropped, long conflated, Long lastDeliveredSeq) {}
+
+    private static final Logger log = LoggerFactory.getLogger(StreamSubscribers.class);
+
+    private record StreamMeters(Counter sent, Counter dropped) {}
+
+    private final Map<Long, SubscriberBuffer> active = new ConcurrentHashMap<>();
+    private final Map<String, StreamMeters> streamMeters = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+    private final int capacity;
+    private final OverflowPolicy defaultPolicy;
+    private final MeterRegistry meters;
+
+    public StreamSubscribers(RagmonProperties props, MeterRegistry meters) {
+        this.capacity = props.getStream().getSubscriberBufferSize();
+        String configured = props.getStream().getOverflowPolicy();
+        OverflowPolicy policy = configured != null ? OverflowPolicy.fromLabel(configured) : null;
+        if (policy == null) {
+            log.warn("Unknown ragmon.stream.overflowPolicy '{}'; using drop-oldest", configured);
+            policy = OverflowPolicy.DROP_OLDEST;
+        }
+        this.defaultPolicy = policy;
+        this.meters = meters;
+    }
+
+    public OverflowPolicy defaultPolicy() {
+        return defaultPolicy;
+    }
+
+    /** Subscribes to {@code source} on behalf of one client; a null policy means the configured default. */
+    public Flux<Object> attach(String stream, Flux<Object> source, OverflowPolicy policy) {
+        OverflowPolicy effective = policy != null ? policy : defaultPolicy;
+        StreamMeters m = metersFor(stream);
+        return Flux.create(sink -> {
+            SubscriberBuffer buffer = new SubscriberBuffer(nextId.incrementAndGet(), stream, effective, capacity, sink, m.dropped());
+            active.put(buffer.id(), buffer);
+            Disposable upstream = source.subscribe(buffer::offer, sink::error, buffer::complete);
+            sink.onRequest(n -> buffer.drain());
+            sink.onDispose(() -> {
+                upstream.dispose();
+                active.remove(buffer.id());
+            });
+        }, FluxSink.OverflowStrategy.ERROR).doOnNext(item -> m.sent().increment());
+    }
+
+    /** Registers a stream's meters on its first client; stream names are fixed per endpoint, so they are safe as tags. */
+    private StreamMeters metersFor(String stream) {
+        return streamMeters.computeIfAbsent(stream, name -> {
+            Gauge.builder("ragmon.stream.subscribers", active, m -> m.values().stream().filter(b -> b.stream().equals(name)).count())
+                    .description("Connected stream clients").tag("stream", name).register(meters);
+            return new StreamMeters(
+                    Counter.builder("ragmon.stream.sent")
+                            .description("Items handed to stream clients").tag("stream", name).register(meters),
+                    Counter.builder("ragmon.stream.dropped")
+                            .description("Items dropped from full client buffers").tag("stream", name).register(meters));
+        });
+    }
+
+    public List<SubscriberStats> stats() {
+        return active.values().stream()
+                .map(SubscriberBuffer::stats)
+                .sorted(Comparator.comparingLong(SubscriberStats::id))
+                .toList();
+    }
+}
@@ -0,0 +1,54 @@
+package com.insurancemegacorp.ragmon.service;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only string interning for one event field: each distinct value gets a small int id, so stored events
+ * hold an int instead of their own copy of a value that repeats on every message. Id 0 stands for null.
+ * <p>
+ * {@link #intern} is writer-only (the store's ingest lock). {@link #get} is safe from any thread for ids that
+ * reached it through the store, whose publication orders it after the intern; {@link #idOf} and {@link #bound}
+ * are safe from any thread. Ids are never reused, so this
+ * is only for fields with a small, stable set of values (apps, stages, event types, statuses); values that churn
+ * with instances go through a {@link StringPool} instead.
+ */
+final class StringDictionary {
+    static final int NULL_ID = 0;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[16];
+    private int size = 1;
+
+    int intern(String value) {
+        if (value == null) return NULL_ID;
+        Integer id = ids.get(value);
+        if (id != null) return id;
+        String[] v = values;
+        if (size == v.length) v = Arrays.copyOf(v, v.length * 2);
+        v[size] = value;
+        values = v;
+        ids.put(value, size);
+        return size++;
+    }
+
+    String get(int id) {
+        return values[id];
+    }
+
+    /** Id of {@code value}, or -1 if it has never been interned; used to turn a query filter into an id compare. */
+    int idOf(String value) {
+        Integer id = ids.get(value);
+        return id != null ? id : -1;
+    }
+
+    /** Exclusive upper bound on every id published so far, for sizing per-id tallies. */
+    int bound() {
+        return values.length;
+    }
+
+    int size() {
+        return size - 1;
+    }
+}
@@ -0,0 +1,44 @@
+package com.insurancemegacorp.ragmon.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reference-counted canonical strings for the high-cardinality event fields (instance ids, URLs, hosts). Retained
+ * events holding the same value share one instance of it, and a value is forgotten once the last of them is
+ * evicted, so the pool is bounded by the retained window however many instances come and go. Stored events hold
+ * the string itself rather than an id, so readers never touch the pool.
+ * <p>
+ * Writer-only: {@link #acquire} and {@link #release} run under the store's ingest lock, which eviction also holds.
+ */
+final class StringPool {
+    private static final class Ref {
+        final String value;
+        int count;
+
+        Ref(String value) {
+            this.value = value;
+        }
+    }
+
+    private final Map<String, Ref> refs = new HashMap<>();
+
+    /** The canonical instance of {@code value}, counted as held by one more retained event. */
+    String acquire(String value) {
+        if (value == null) return null;
+        Ref ref = refs.computeIfAbsent(value, Ref::new);
+        ref.count++;
+        return ref.value;
+    }
+
+    /** Drops one hold on {@code value}, as returned by {@link #acquire}, forgetting it with the last. */
+    void release(String value) {
+        if (value == null) return;
+        Ref ref = refs.get(value);
+        if (ref != null && --ref.count == 0) refs.remove(value);
+    }
+
+    int size() {
+        return refs.size();
+    }
+}
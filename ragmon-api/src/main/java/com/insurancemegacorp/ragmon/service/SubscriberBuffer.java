@@ -0,0 +1,117 @@
+package com.insurancemegacorp.ragmon.service;
+
+import com.insurancemegacorp.ragmon.model.Event;
+import io.micrometer.core.instrument.Counter;
+import reactor.core.publisher.FluxSink;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One subscriber's bounded queue between a shared source and its {@link FluxSink}. The source is consumed
+ * without backpressure; items are handed downstream only as the client requests them, and the
+ * {@link OverflowPolicy} decides what happens once {@code capacity} items are waiting.
+ */
+final class SubscriberBuffer {
+    private static final class Slot {
+        final Object value;
+        final String key;
+
+        Slot(Object value, String key) {
+            this.value = value;
+            this.key = key;
+        }
+    }
+
+    private final long id;
+    private final String stream;
+    private final OverflowPolicy policy;
+    private final int capacity;
+    private final long connectedAt = System.currentTimeMillis();
+    private final FluxSink<Object> sink;
+    private final Counter droppedCounter;
+    private final ArrayDeque<Slot> queue = new ArrayDeque<>();
+    // Buffered heartbeats by app::instanceId, only used by CONFLATE
+    private final Map<String, Slot> pendingByKey = new HashMap<>();
+    private volatile long delivered;
+    private volatile long dropped;
+    private volatile long conflated;
+    private volatile Long lastDeliveredSeq;
+    private boolean upstreamDone;
+    private boolean closed;
+
+    SubscriberBuffer(long id, String stream, OverflowPolicy policy, int capacity, FluxSink<Object> sink,
+                     Counter droppedCounter) {
+        this.id = id;
+        this.stream = stream;
+        this.policy = policy;
+        this.capacity = Math.max(1, capacity);
+        this.sink = sink;
+        this.droppedCounter = droppedCounter;
+    }
+
+    long id() { return id; }
+    String stream() { return stream; }
+
+    synchronized void offer(Object item) {
+        if (closed) return;
+        String key = policy == OverflowPolicy.CONFLATE ? HeartbeatConflator.conflationKey(item) : null;
+        if (key != null) {
+            // The replaced heartbeat moves to the tail rather than being overwritten in place, so it is never
+            // delivered ahead of events queued after the one it replaces
+            Slot pending = pendingByKey.remove(key);
+            if (pending != null) {
+                queue.removeFirstOccurrence(pending);
+                conflated++;
+            }
+        }
+        if (queue.size() >= capacity) {
+            if (policy == OverflowPolicy.DISCONNECT) {
+                closed = true;
+                droppedCounter.increment(queue.size() + 1);
+                dropped += queue.size() + 1;
+                queue.clear();
+                pendingByKey.clear();
+                sink.error(new SlowConsumerException(lastDeliveredSeq));
+                return;
+            }
+            forget(queue.poll());
+            droppedCounter.increment();
+            dropped++;
+        }
+        Slot slot = new Slot(item, key);
+        queue.add(slot);
+        if (key != null) pendingByKey.put(key, slot);
+        drain();
+    }
+
+    synchronized void complete() {
+        upstreamDone = true;
+        drain();
+    }
+
+    synchronized void drain() {
+        if (closed) return;
+        while (!queue.isEmpty() && sink.requestedFromDownstream() > 0) {
+            Slot slot = queue.poll();
+            forget(slot);
+            delivered++;
+            if (slot.value instanceof Event e && e.getSeq() != null) lastDeliveredSeq = e.getSeq();
+            sink.next(slot.value);
+        }
+        if (upstreamDone && queue.isEmpty()) {
+            closed = true;
+            sink.complete();
+        }
+    }
+
+    private void forget(Slot slot) {
+        if (slot != null && slot.key != null && pendingByKey.get(slot.key) == slot) pendingByKey.remove(slot.key);
+    }
+
+    synchronized StreamSubscribers.SubscriberStats stats() {
+        return new StreamSubscribers.SubscriberStats(id, stream, policy, connectedAt, queue.size(), capacity,
+                delivered, dropped, conflated, lastDeliveredSeq);
+    }
+}
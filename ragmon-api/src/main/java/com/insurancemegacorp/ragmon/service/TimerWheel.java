@@ -0,0 +1,53 @@
+package com.insurancemegacorp.ragmon.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel: scheduling is O(1) and each tick only visits the timeouts hashed to its slot. Deadlines
+ * further out than one rotation stay in their slot until their tick comes round. Not thread-safe; callers
+ * serialize {@link #schedule} and {@link #advance}.
+ */
+final class TimerWheel<T> {
+    private record Timeout<T>(T item, long tick) {}
+
+    private final long tickMs;
+    private final List<List<Timeout<T>>> slots;
+    private final int mask;
+    private long currentTick; // next tick to expire
+
+    TimerWheel(long tickMs, int slotCount, long now) {
+        this.tickMs = Math.max(1, tickMs);
+        int size = Integer.highestOneBit(Math.max(2, slotCount));
+        this.slots = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) slots.add(new ArrayList<>());
+        this.mask = size - 1;
+        this.currentTick = Math.floorDiv(now, this.tickMs);
+    }
+
+    /** Fires {@code item} on the first tick at or after {@code deadline}; past deadlines fire on the next advance. */
+    void schedule(T item, long deadline) {
+        long tick = Math.max(-Math.floorDiv(-deadline, tickMs), currentTick);
+        slots.get((int) (tick & mask)).add(new Timeout<>(item, tick));
+    }
+
+    /**
+     * Expires every timeout due by {@code now}. {@code expired} may schedule again; a deadline after {@code now}
+     * always lands on a later tick than the one being expired.
+     */
+    void advance(long now, Consumer<T> expired) {
+        long target = Math.floorDiv(now, tickMs);
+        for (; currentTick <= target; currentTick++) {
+            int idx = (int) (currentTick & mask);
+            List<Timeout<T>> slot = slots.get(idx);
+            if (slot.isEmpty()) continue;
+            List<Timeout<T>> remaining = new ArrayList<>();
+            slots.set(idx, remaining);
+            for (Timeout<T> t : slot) {
+                if (t.tick() <= currentTick) expired.accept(t.item());
+                else remaining.add(t);
+            }
+        }
+    }
+}
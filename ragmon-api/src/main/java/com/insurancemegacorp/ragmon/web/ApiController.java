@@ -1,11 +1,18 @@
 package com.insurancemegacorp.ragmon.web;
 
 import com.insurancemegacorp.ragmon.model.Event;
+import com.insurancemegacorp.ragmon.service.EventQuery;
 import com.insurancemegacorp.ragmon.service.EventStore;
+import com.insurancemegacorp.ragmon.service.LatencyTracker;
+import com.insurancemegacorp.ragmon.service.RollupEngine;
+import com.insurancemegacorp.ragmon.service.StreamSubscribers;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 import java.util.Map;
@@ -15,19 +22,82 @@ import java.util.Map;
 public class ApiController {
 
     private final EventStore store;
+    private final RollupEngine rollups;
+    private final LatencyTracker latency;
+    private final StreamSubscribers subscribers;
 
-    public ApiController(EventStore store) {
+    public ApiController(EventStore store, RollupEngine rollups, LatencyTracker latency, StreamSubscribers subscribers) {
         this.store = store;
+        this.rollups = rollups;
+        this.latency = latency;
+        this.subscribers = subscribers;
     }
 
+    /**
+     * Retained events, optionally filtered. Pass the {@code seq} of the last event received as {@code since}
+     * to fetch only newer events; without {@code since}, {@code limit} keeps the newest matches.
+     */
     @GetMapping("/events/recent")
-    public List<Object> recent() {
-        return store.recentEvents();
+    public List<Event> recent(@RequestParam(required = false) String app,
+                               @RequestParam(required = false) String instanceId,
+                               @RequestParam(required = false) String status,
+                               @RequestParam(required = false) String event,
+                               @RequestParam(required = false) String docId,
+                               @RequestParam(required = false) Long from,
+                               @RequestParam(required = false) Long to,
+                               @RequestParam(required = false) Long since,
+                               @RequestParam(required = false) Integer limit) {
+        EventQuery q = new EventQuery(app, instanceId, status, event, docId, from, to, since, limit);
+        return q.equals(EventQuery.ALL) ? store.recentEvents() : store.query(q);
     }
 
+    /** Counts by status; with any filter the retained window is scanned instead of reading the live counters. */
     @GetMapping("/metrics")
-    public Map<String, Long> metrics() {
-        return store.metricsCountsByStatus();
+    public Map<String, Long> metrics(@RequestParam(required = false) String app,
+                                     @RequestParam(required = false) String instanceId,
+                                     @RequestParam(required = false) Long from,
+                                     @RequestParam(required = false) Long to) {
+        if (app == null && instanceId == null && from == null && to == null) return store.metricsCountsByStatus();
+        return store.countsByStatus(new EventQuery(app, instanceId, null, null, null, from, to, null, null));
+    }
+
+    @GetMapping("/metrics/stages")
+    public Map<String, Long> metricsByStage() {
+        return store.countsByStage();
+    }
+
+    @GetMapping("/metrics/instances")
+    public Map<String, Long> metricsByInstance() {
+        return store.countsByInstance();
+    }
+
+    @GetMapping("/metrics/timeseries")
+    public List<RollupEngine.SeriesView> timeseries(@RequestParam(defaultValue = "10s") String resolution,
+                                                    @RequestParam(required = false) String app,
+                                                    @RequestParam(required = false) String stage,
+                                                    @RequestParam(required = false) String instanceId,
+                                                    @RequestParam(required = false) Long from,
+                                                    @RequestParam(required = false) Long to) {
+        RollupEngine.Resolution r = RollupEngine.Resolution.fromLabel(resolution);
+        if (r == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "resolution must be one of 1s, 10s, 1m");
+        }
+        long end = to != null ? to : System.currentTimeMillis();
+        long start = from != null ? from : end - rollups.retentionMillis(r);
+        return rollups.query(r, app, stage, instanceId, start, end);
+    }
+
+    @GetMapping("/metrics/latency")
+    public List<LatencyTracker.StageLatency> latency(@RequestParam(required = false) String app,
+                                                     @RequestParam(defaultValue = "300") long windowSeconds) {
+        long spanMs = Math.min(Math.max(1, windowSeconds) * 1000L, latency.maxSpanMillis());
+        return latency.query(app, spanMs);
+    }
+
+    /** Per-client buffer depth, delivery and drop counters for the live SSE streams. */
+    @GetMapping("/streams/subscribers")
+    public List<StreamSubscribers.SubscriberStats> subscribers() {
+        return subscribers.stats();
     }
 
     @GetMapping("/apps")
@@ -0,0 +1,45 @@
+package com.insurancemegacorp.ragmon.web;
+
+import com.insurancemegacorp.ragmon.history.EventRecord;
+import com.insurancemegacorp.ragmon.history.EventRecordRepository;
+import com.insurancemegacorp.ragmon.model.Event;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+@RestController
+@RequestMapping(path = "/api", produces = MediaType.APPLICATION_JSON_VALUE)
+@ConditionalOnProperty(prefix = "ragmon.history", name = "enabled", havingValue = "true")
+public class HistoryController {
+    private static final int MAX_LIMIT = 5_000;
+
+    private final EventRecordRepository repository;
+
+    public HistoryController(EventRecordRepository repository) {
+        this.repository = repository;
+    }
+
+    @GetMapping("/events/history")
+    public Mono<List<Event>> history(@RequestParam(required = false) Long from,
+                                     @RequestParam(required = false) Long to,
+                                     @RequestParam(required = false) String app,
+                                     @RequestParam(required = false) String instanceId,
+                                     @RequestParam(defaultValue = "500") int limit) {
+        long end = to != null ? to : System.currentTimeMillis();
+        long start = from != null ? from : end - 3_600_000L;
+        PageRequest page = PageRequest.of(0, Math.min(Math.max(1, limit), MAX_LIMIT));
+        // JPA is blocking; keep it off the event loop
+        return Mono.fromCallable(() -> repository.search(start, end, app, instanceId, page).stream()
+                        .map(EventRecord::toEvent)
+                        .toList())
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
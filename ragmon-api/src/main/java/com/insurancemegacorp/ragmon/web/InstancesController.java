@@ -1,7 +1,11 @@
 package com.insurancemegacorp.ragmon.web;
 
 import com.insurancemegacorp.ragmon.service.InstanceRegistry;
+import com.insurancemegacorp.ragmon.service.OverflowPolicy;
+import com.insurancemegacorp.ragmon.service.SlowConsumerException;
+import com.insurancemegacorp.ragmon.service.StreamSubscribers;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -10,15 +14,20 @@ import reactor.core.publisher.Sinks;
 
 import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping(path = "/api", produces = MediaType.APPLICATION_JSON_VALUE)
 public class InstancesController {
+    private static final ServerSentEvent<Object> OVERFLOW_RESET =
+            ServerSentEvent.<Object>builder(Map.of("reason", "overflow")).event("reset").build();
+
     private final InstanceRegistry registry;
-    private final Sinks.Many<Object> sink = Sinks.many().multicast().onBackpressureBuffer();
+    private final StreamSubscribers subscribers;
 
-    public InstancesController(InstanceRegistry registry) {
+    public InstancesController(InstanceRegistry registry, StreamSubscribers subscribers) {
         this.registry = registry;
+        this.subscribers = subscribers;
     }
 
     @GetMapping("/instances")
@@ -26,11 +35,27 @@ public class InstancesController {
         return registry.list();
     }
 
+    /**
+     * One {@code snapshot} event with the full list, then a {@code delta} event per registry change, all fed
+     * from the registry's shared change stream. A client that falls too far behind is sent a final {@code reset}
+     * event and disconnected instead of losing deltas; reconnecting gives it a fresh snapshot.
+     */
     @GetMapping(path = "/instances/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public Flux<Object> stream() {
-        // simple ticker that emits the full list; can be optimized to diffs later
-        return Flux.interval(Duration.ofSeconds(5)).map(t -> { registry.prune(); return registry.list(); });
+    public Flux<ServerSentEvent<Object>> stream() {
+        Sinks.Empty<Void> ended = Sinks.empty();
+        Flux<ServerSentEvent<Object>> updates = subscribers.attach("instances", registry.snapshotThenChanges(), OverflowPolicy.DISCONNECT)
+                .map(InstancesController::toSse)
+                .onErrorResume(SlowConsumerException.class, ex -> Flux.just(OVERFLOW_RESET))
+                .doOnTerminate(ended::tryEmitEmpty);
+        Flux<ServerSentEvent<Object>> keepAlive = Flux.interval(Duration.ofSeconds(15))
+                .map(tick -> ServerSentEvent.builder().comment("keepalive").build());
+        return Flux.merge(keepAlive.takeUntilOther(ended.asMono()), updates);
     }
-}
-
 
+    private static ServerSentEvent<Object> toSse(Object item) {
+        if (item instanceof InstanceRegistry.InstanceChange change) {
+            return ServerSentEvent.builder(item).event("delta").id(Long.toString(change.version())).build();
+        }
+        return ServerSentEvent.builder(item).event("snapshot").build();
+    }
+}
@@ -0,0 +1,359 @@
+package com.insurancemegacorp.ragmon.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurancemegacorp.ragmon.amqp.MonitoringListener;
+import com.insurancemegacorp.ragmon.config.RagmonProperties;
+import com.insurancemegacorp.ragmon.model.Event;
+import com.insurancemegacorp.ragmon.service.EventStore;
+import com.insurancemegacorp.ragmon.service.InstanceRegistry;
+import com.insurancemegacorp.ragmon.service.LogHistogram;
+import com.insurancemegacorp.ragmon.service.OverflowPolicy;
+import com.insurancemegacorp.ragmon.service.StreamSubscribers;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Simulates {@code apps × instancesPerApp} services publishing at a fixed total rate, for finding the fleet size
+ * at which the monitor falls behind. Each instance announces itself with {@code INIT}, then sends mostly
+ * heartbeats plus {@code FILE_PROCESSED} and {@code ERROR} events, with counters, memory and backlog drifting
+ * between messages. Payloads are the {@code meta.service} JSON real services send. With {@link Target#DIRECT}
+ * they go straight into {@link MonitoringListener#handleBatch} (a local instance when the Rabbit listener is
+ * disabled), skipping the broker; {@link Target#BROKER} publishes them to the monitor queue.
+ *
+ * <p>A probe subscribes to the event stream through {@link StreamSubscribers} and {@link SseFrames}, like an SSE
+ * client minus the socket, and records how long each generated event took from creation to its encoded frame.
+ */
+@Component
+@Profile("dev")
+public class LoadGenerator implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(LoadGenerator.class);
+    static final String APP_PREFIX = "load-app-";
+
+    public enum Target { DIRECT, BROKER }
+
+    public record Spec(int apps, int instancesPerApp, double ratePerSecond, int durationSeconds, Target target,
+                       int batchSize, int producers, double errorRate) {}
+
+    public record Report(boolean running, Spec spec, double elapsedSeconds, long sent, long behind,
+                         double sentPerSecond, long delivered, double deliveredPerSecond, long latencyP50Ms,
+                         long latencyP99Ms, long latencyMaxMs, long heapUsedStartMB, long heapUsedMB,
+                         long heapGrowthMB, int registeredInstances, String error) {}
+
+    private final EventStore store;
+    private final InstanceRegistry registry;
+    private final StreamSubscribers subscribers;
+    private final SseFrames frames;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<MonitoringListener> listenerProvider;
+    private final RabbitTemplate rabbitTemplate;
+    private final RagmonProperties props;
+    private final MeterRegistry meters;
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    private Run current;
+
+    public LoadGenerator(EventStore store, InstanceRegistry registry, StreamSubscribers subscribers, SseFrames frames,
+                         ObjectMapper objectMapper, ObjectProvider<MonitoringListener> listenerProvider,
+                         RabbitTemplate rabbitTemplate, RagmonProperties props, MeterRegistry meters) {
+        this.store = store;
+        this.registry = registry;
+        this.subscribers = subscribers;
+        this.frames = frames;
+        this.objectMapper = objectMapper;
+        this.listenerProvider = listenerProvider;
+        this.rabbitTemplate = rabbitTemplate;
+        this.props = props;
+        this.meters = meters;
+    }
+
+    /** Starts a run, replacing any run in progress. */
+    public synchronized Report start(Spec spec) {
+        if (current != null) current.stop();
+        MonitoringListener listener = spec.target() == Target.DIRECT
+                ? listenerProvider.getIfAvailable(() -> new MonitoringListener(objectMapper, store, props, registry, meters))
+                : null;
+        // Start from a collected heap so growth reflects what the run retains, not garbage from before it
+        System.gc();
+        current = new Run(spec, listener, memory.getHeapMemoryUsage().getUsed());
+        current.start();
+        log.info("Load run started: {}", spec);
+        return current.report(false);
+    }
+
+    public synchronized Report report(boolean gc) {
+        if (current == null) return null;
+        if (gc) System.gc();
+        return current.report(true);
+    }
+
+    public synchronized Report stop() {
+        if (current == null) return null;
+        current.stop();
+        return current.report(true);
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (current != null) current.stop();
+    }
+
+    private final class Run {
+        private final Spec spec;
+        private final MonitoringListener listener;
+        private final long heapStart;
+        private final List<Thread> producers = new ArrayList<>();
+        private final AtomicLong sent = new AtomicLong();
+        private final AtomicLong delivered = new AtomicLong();
+        private final AtomicInteger active = new AtomicInteger();
+        private final LogHistogram latency = new LogHistogram();
+        private final long startNanos = System.nanoTime();
+        private volatile long endNanos;
+        private volatile boolean stopped;
+        private volatile String error;
+        private Disposable probe;
+
+        Run(Spec spec, MonitoringListener listener, long heapStart) {
+            this.spec = spec;
+            this.listener = listener;
+            this.heapStart = heapStart;
+        }
+
+        void start() {
+            probe = subscribers.attach("load-probe", store.stream().filter(Run::generated), OverflowPolicy.DROP_OLDEST)
+                    .subscribe(this::observe, ex -> log.warn("Load probe ended: {}", ex.getMessage()));
+            int n = Math.max(1, Math.min(spec.producers(), spec.apps() * spec.instancesPerApp()));
+            List<List<SimInstance>> slices = new ArrayList<>();
+            for (int i = 0; i < n; i++) slices.add(new ArrayList<>());
+            int k = 0;
+            for (int a = 0; a < spec.apps(); a++) {
+                for (int i = 0; i < spec.instancesPerApp(); i++) {
+                    slices.get(k++ % n).add(new SimInstance(APP_PREFIX + a, i));
+                }
+            }
+            active.set(n);
+            for (int i = 0; i < n; i++) {
+                List<SimInstance> slice = slices.get(i);
+                long seed = i;
+                double rate = spec.ratePerSecond() * slice.size() / (spec.apps() * spec.instancesPerApp());
+                producers.add(Thread.ofPlatform().name("ragmon-load-" + i).daemon()
+                        .start(() -> produce(slice, rate, new SplittableRandom(seed))));
+            }
+        }
+
+        private static boolean generated(Object o) {
+            return o instanceof Event e && e.getApp() != null && e.getApp().startsWith(APP_PREFIX);
+        }
+
+        private void observe(Object item) {
+            frames.frame(item);
+            long lag = System.currentTimeMillis() - ((Event) item).getTimestamp();
+            delivered.incrementAndGet();
+            synchronized (latency) {
+                latency.record(lag);
+            }
+        }
+
+        /** Paces one producer's share of the rate, catching up in batches when it falls behind. */
+        private void produce(List<SimInstance> instances, double rate, SplittableRandom rnd) {
+            long deadline = spec.durationSeconds() > 0 ? startNanos + spec.durationSeconds() * 1_000_000_000L : Long.MAX_VALUE;
+            long produced = 0;
+            int next = 0;
+            try {
+                while (!stopped) {
+                    long now = System.nanoTime();
+                    if (now >= deadline) break;
+                    long due = (long) (rate * (now - startNanos) / 1e9) - produced;
+                    if (due <= 0) {
+                        LockSupport.parkNanos(1_000_000);
+                        continue;
+                    }
+                    int n = (int) Math.min(due, Math.max(1, spec.batchSize()));
+                    List<Message> batch = new ArrayList<>(n);
+                    for (int i = 0; i < n; i++) {
+                        SimInstance inst = instances.get(next++ % instances.size());
+                        batch.add(message(inst.next(rnd, spec.errorRate())));
+                    }
+                    send(batch);
+                    produced += n;
+                    sent.addAndGet(n);
+                }
+            } catch (Exception ex) {
+                log.warn("Load producer {} failed", Thread.currentThread().getName(), ex);
+                error = ex.getMessage();
+                stopped = true;
+            }
+            finish();
+        }
+
+        private Message message(Map<String, Object> payload) throws Exception {
+            MessageProperties mp = new MessageProperties();
+            mp.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+            return new Message(objectMapper.writeValueAsBytes(payload), mp);
+        }
+
+        private void send(List<Message> batch) {
+            if (listener != null) {
+                listener.handleBatch(batch);
+                return;
+            }
+            // default exchange with routing key == queue name
+            for (Message m : batch) rabbitTemplate.send("", props.getRabbit().getMonitorQueue(), m);
+        }
+
+        private synchronized void finish() {
+            if (active.decrementAndGet() == 0 && endNanos == 0) endNanos = System.nanoTime();
+        }
+
+        void stop() {
+            stopped = true;
+            for (Thread t : producers) {
+                try {
+                    t.join(5000);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            synchronized (this) {
+                if (endNanos == 0) endNanos = System.nanoTime();
+            }
+            if (probe != null) probe.dispose();
+        }
+
+        Report report(boolean includeRegistry) {
+            long end = endNanos != 0 ? endNanos : System.nanoTime();
+            double elapsed = Math.max(1e-9, (end - startNanos) / 1e9);
+            long sentNow = sent.get();
+            long expected = (long) (spec.ratePerSecond() * elapsed);
+            long deliveredNow = delivered.get();
+            long p50, p99, max;
+            synchronized (latency) {
+                p50 = latency.percentile(50);
+                p99 = latency.percentile(99);
+                max = latency.max();
+            }
+            long heapNow = memory.getHeapMemoryUsage().getUsed();
+            int registered = 0;
+            if (includeRegistry) {
+                for (InstanceRegistry.Instance i : registry.list()) {
+                    if (i.service() != null && i.service().startsWith(APP_PREFIX)) registered++;
+                }
+            }
+            return new Report(endNanos == 0, spec, elapsed, sentNow, Math.max(0, expected - sentNow),
+                    sentNow / elapsed, deliveredNow, deliveredNow / elapsed, p50, p99, max,
+                    heapStart >> 20, heapNow >> 20, (heapNow - heapStart) >> 20, registered, error);
+        }
+    }
+
+    /** One simulated service instance; only touched by the producer thread that owns it. */
+    private static final class SimInstance {
+        private final String service;
+        private final String instanceId;
+        private final String host;
+        private final long bootEpoch = System.currentTimeMillis();
+        private boolean announced;
+        private long filesProcessed;
+        private long filesTotal = 100;
+        private long totalChunks;
+        private long processedChunks;
+        private long errorCount;
+        private long pendingMessages;
+        private double memoryUsedMB = 128;
+        private String lastError;
+
+        SimInstance(String service, int index) {
+            this.service = service;
+            this.instanceId = service + "-" + index + "@loadgen";
+            this.host = service + "-" + index + ".loadgen.invalid:8080";
+        }
+
+        Map<String, Object> next(SplittableRandom rnd, double errorRate) {
+            long now = System.currentTimeMillis();
+            // Counters wander the way a busy service's do between heartbeats
+            memoryUsedMB = Math.max(64, Math.min(2048, memoryUsedMB + rnd.nextDouble(-8, 8.5)));
+            pendingMessages = Math.max(0, pendingMessages + rnd.nextInt(-3, 4));
+
+            String event;
+            String status;
+            String currentFile = null;
+            if (!announced) {
+                announced = true;
+                event = "INIT";
+                status = "STARTING";
+            } else {
+                double r = rnd.nextDouble();
+                if (r < errorRate) {
+                    errorCount++;
+                    lastError = "Failed to parse file: file-" + filesProcessed + ".txt - Invalid format";
+                    event = "ERROR";
+                    status = "ERROR";
+                } else if (r < errorRate + 0.25) {
+                    long chunks = rnd.nextLong(5, 50);
+                    totalChunks += chunks;
+                    processedChunks += chunks;
+                    if (++filesProcessed >= filesTotal) filesTotal += 100;
+                    currentFile = "data/input/file-" + filesProcessed + ".txt";
+                    event = "FILE_PROCESSED";
+                    status = "PROCESSING";
+                } else {
+                    event = "HEARTBEAT";
+                    status = pendingMessages > 0 ? "PROCESSING" : "IDLE";
+                }
+            }
+
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("instanceId", instanceId);
+            payload.put("timestamp", Instant.ofEpochMilli(now).toString());
+            payload.put("event", event);
+            payload.put("status", status);
+            payload.put("uptime", uptime(now - bootEpoch));
+            payload.put("url", "http://" + host);
+            payload.put("hostname", host);
+            payload.put("publicHostname", host);
+            if (!"HEARTBEAT".equals(event)) payload.put("bootEpoch", bootEpoch);
+            if ("INIT".equals(event)) payload.put("version", "1.0.0");
+            if (currentFile != null) payload.put("currentFile", currentFile);
+            payload.put("filesProcessed", filesProcessed);
+            payload.put("filesTotal", filesTotal);
+            payload.put("totalChunks", totalChunks);
+            payload.put("processedChunks", processedChunks);
+            payload.put("processingRate", Math.round(rnd.nextDouble(0.5, 5) * 100) / 100.0);
+            payload.put("errorCount", errorCount);
+            payload.put("lastError", lastError);
+            payload.put("memoryUsedMB", Math.round(memoryUsedMB));
+            payload.put("pendingMessages", pendingMessages);
+            Map<String, Object> meta = new HashMap<>();
+            meta.put("service", service);
+            meta.put("processingStage", "processing");
+            meta.put("inputMode", "loadgen");
+            payload.put("meta", meta);
+            return payload;
+        }
+
+        private static String uptime(long ms) {
+            long s = ms / 1000;
+            return (s / 3600) + "h " + (s / 60 % 60) + "m " + (s % 60) + "s";
+        }
+    }
+}
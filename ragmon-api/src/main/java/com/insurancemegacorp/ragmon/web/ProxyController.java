@@ -1,44 +1,85 @@
 package com.insurancemegacorp.ragmon.web;
 
-import com.insurancemegacorp.ragmon.service.EventStore;
+import com.insurancemegacorp.ragmon.config.RagmonProperties;
+import com.insurancemegacorp.ragmon.service.ProxyRouter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
-import org.springframework.util.MultiValueMap;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.http.server.reactive.ServerHttpRequest;
-import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 import java.net.URI;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Forwards {@code /api/proxy/{app}/**} to an instance of the app chosen by {@link ProxyRouter}; an
+ * {@code X-Instance-Id} request header pins the call to that instance, and the response names the instance that
+ * served it in the same header. Both bodies are relayed as {@link DataBuffer}s as they arrive, never aggregated,
+ * so large downloads don't land on our heap and streaming responses (SSE, chunked) reach the caller as the app
+ * produces them, except on routes opted into {@link ProxyResponseCache}, whose GET responses are read whole and
+ * marked {@code X-Cache: HIT} or {@code MISS}. Upstream connections are pooled per instance with the limits in
+ * {@code ragmon.proxy}. Time to the upstream response headers is recorded as {@code ragmon.proxy.upstream} by app
+ * and outcome.
+ */
 @RestController
 @RequestMapping(path = "/api/proxy")
-public class ProxyController {
+public class ProxyController implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(ProxyController.class);
+    static final String INSTANCE_HEADER = "X-Instance-Id";
+    static final String CACHE_HEADER = "X-Cache";
 
-    private final EventStore store;
+    private final ProxyRouter router;
+    private final ProxyResponseCache cache;
+    private final ConnectionProvider connections;
     private final WebClient webClient;
+    private final MeterRegistry meters;
+    private final Map<UpstreamKey, Timer> upstreamTimers = new ConcurrentHashMap<>();
+
+    private record UpstreamKey(String app, String outcome) {}
 
-    public ProxyController(EventStore store, WebClient.Builder webClientBuilder) {
-        this.store = store;
-        this.webClient = webClientBuilder.build();
+    public ProxyController(ProxyRouter router, ProxyResponseCache cache, WebClient.Builder webClientBuilder,
+                           RagmonProperties props, MeterRegistry meters) {
+        RagmonProperties.Proxy cfg = props.getProxy();
+        this.router = router;
+        this.cache = cache;
+        this.meters = meters;
+        // Reactor Netty keeps one pool per remote address, so these limits apply to each instance separately
+        this.connections = ConnectionProvider.builder("ragmon-proxy")
+                .maxConnections(Math.max(1, cfg.getMaxConnectionsPerInstance()))
+                .pendingAcquireMaxCount(Math.max(1, cfg.getMaxPendingPerInstance()))
+                .build();
+        this.webClient = webClientBuilder
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                .build();
     }
 
     @RequestMapping(path = "/{app}/**", method = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.PATCH, RequestMethod.DELETE}, consumes = MediaType.ALL_VALUE, produces = MediaType.ALL_VALUE)
-    public Mono<ResponseEntity<byte[]>> proxy(@PathVariable("app") String app,
-                                              @RequestHeader HttpHeaders headers,
-                                              @RequestParam MultiValueMap<String, String> query,
-                                              @RequestBody(required = false) Mono<byte[]> body,
-                                              ServerHttpRequest request,
-                                              ServerWebExchange exchange) {
-        return forward(app, suffixFrom(request, app), headers, query, body, request.getMethod());
+    public Mono<Void> proxy(@PathVariable("app") String app,
+                            ServerHttpRequest request,
+                            ServerHttpResponse response) {
+        return forward(app, suffixFrom(request, app), request, response);
     }
 
     private String suffixFrom(ServerHttpRequest request, String app) {
@@ -50,57 +91,173 @@ public class ProxyController {
         return "";
     }
 
-    private Mono<ResponseEntity<byte[]>> forward(String app,
-                                                 String path,
-                                                 HttpHeaders headers,
-                                                 MultiValueMap<String, String> query,
-                                                 Mono<byte[]> body,
-                                                 HttpMethod method) {
-        String baseUrl = store.apps().get(app);
-        if (baseUrl == null || baseUrl.isBlank()) {
-            return Mono.just(ResponseEntity.status(404).body((byte[]) null));
+    private Mono<Void> forward(String app, String path, ServerHttpRequest request, ServerHttpResponse response) {
+        String instanceId = request.getHeaders().getFirst(INSTANCE_HEADER);
+        Long ttlMs = request.getMethod() == HttpMethod.GET && !ProxyResponseCache.isPrivate(request.getHeaders())
+                ? cache.ttlFor(path) : null;
+        if (ttlMs != null) return forwardCached(app, instanceId, path, request, response, ttlMs);
+
+        ProxyRouter.Lease lease = router.acquire(app, instanceId);
+        if (lease == null) {
+            response.setStatusCode(HttpStatus.NOT_FOUND);
+            return response.setComplete();
         }
+        if (lease.instanceId() != null) response.getHeaders().set(INSTANCE_HEADER, lease.instanceId());
+        HttpMethod method = request.getMethod();
+        WebClient.RequestBodySpec spec = webClient.method(method)
+                .uri(target(lease, path, request))
+                .headers(h -> copyHeaders(request.getHeaders(), h));
+        WebClient.RequestHeadersSpec<?> upstream = (method == HttpMethod.GET || method == HttpMethod.DELETE)
+                ? spec
+                : spec.body(BodyInserters.fromDataBuffers(request.getBody()));
+
+        // The upstream body must be consumed inside exchangeToMono, so the reply is written from there
+        long start = System.nanoTime();
+        return upstream.exchangeToMono(resp -> {
+                    recordUpstream(app, start, outcome(resp.statusCode()));
+                    return relay(resp, response);
+                })
+                .onErrorResume(WebClientRequestException.class, ex -> {
+                    // Covers refused connections and a full per-instance pool; nothing has been written yet
+                    log.warn("Proxy call to {} ({}) failed: {}", app, lease.url(), ex.getMessage());
+                    recordUpstream(app, start, "UNREACHABLE");
+                    lease.fail();
+                    response.setStatusCode(HttpStatus.BAD_GATEWAY);
+                    return response.setComplete();
+                })
+                .doFinally(signal -> lease.release());
+    }
+
+    private URI target(ProxyRouter.Lease lease, String path, ServerHttpRequest request) {
         StringBuilder target = new StringBuilder();
-        target.append(baseUrl);
+        target.append(lease.url());
         if (path != null && !path.isBlank()) {
             if (!path.startsWith("/")) target.append('/');
             target.append(path);
         }
+        // Pass the query through as the client encoded it
+        String query = request.getURI().getRawQuery();
         if (query != null && !query.isEmpty()) {
-            target.append('?');
-            target.append(query.entrySet().stream()
-                    .flatMap(e -> e.getValue().stream().map(v ->
-                            URLEncoder.encode(e.getKey(), StandardCharsets.UTF_8) + "=" + URLEncoder.encode(v, StandardCharsets.UTF_8)))
-                    .reduce((a, b) -> a + "&" + b).orElse(""));
+            target.append('?').append(query);
         }
+        return URI.create(target.toString());
+    }
+
+    /** GETs on a cached route: served from the cache, or from one upstream call shared by concurrent misses. */
+    private Mono<Void> forwardCached(String app, String instanceId, String path, ServerHttpRequest request,
+                                     ServerHttpResponse response, long ttlMs) {
+        String key = ProxyResponseCache.key(app, instanceId, path, request.getURI().getRawQuery());
+        ProxyResponseCache.Entry hit = cache.cached(key);
+        if (hit != null) return reply(hit, "HIT", response);
+        return cache.load(key, ttlMs, () -> fetch(app, instanceId, path, request))
+                .flatMap(e -> reply(e, "MISS", response));
+    }
+
+    private Mono<ProxyResponseCache.Entry> fetch(String app, String instanceId, String path, ServerHttpRequest request) {
+        return Mono.defer(() -> {
+            ProxyRouter.Lease lease = router.acquire(app, instanceId);
+            if (lease == null) return Mono.just(emptyEntry(HttpStatus.NOT_FOUND));
+            long start = System.nanoTime();
+            return webClient.get()
+                    .uri(target(lease, path, request))
+                    .headers(h -> copyHeaders(request.getHeaders(), h))
+                    .exchangeToMono(resp -> {
+                        recordUpstream(app, start, outcome(resp.statusCode()));
+                        HttpHeaders headers = ProxyResponseCache.shareable(copyBackHeaders(resp.headers().asHttpHeaders()));
+                        if (MediaType.TEXT_EVENT_STREAM.isCompatibleWith(headers.getContentType())) {
+                            log.warn("Not caching event stream from {}{}; remove it from ragmon.proxy.cache.routes", app, path);
+                            return Mono.just(emptyEntry(HttpStatus.BAD_GATEWAY));
+                        }
+                        headers.remove(HttpHeaders.CONTENT_LENGTH);
+                        if (lease.instanceId() != null) headers.set(INSTANCE_HEADER, lease.instanceId());
+                        return DataBufferUtils.join(resp.bodyToFlux(DataBuffer.class), cache.maxBodyBytes())
+                                .map(buf -> {
+                                    byte[] bytes = new byte[buf.readableByteCount()];
+                                    buf.read(bytes);
+                                    DataBufferUtils.release(buf);
+                                    return bytes;
+                                })
+                                .defaultIfEmpty(new byte[0])
+                                .map(bytes -> new ProxyResponseCache.Entry(resp.statusCode().value(), headers, bytes));
+                    })
+                    .onErrorResume(WebClientRequestException.class, ex -> {
+                        log.warn("Proxy call to {} ({}) failed: {}", app, lease.url(), ex.getMessage());
+                        recordUpstream(app, start, "UNREACHABLE");
+                        lease.fail();
+                        return Mono.just(emptyEntry(HttpStatus.BAD_GATEWAY));
+                    })
+                    .onErrorResume(DataBufferLimitException.class, ex -> {
+                        log.warn("Response from {}{} exceeds ragmon.proxy.cache.maxBodyBytes", app, path);
+                        return Mono.just(emptyEntry(HttpStatus.BAD_GATEWAY));
+                    })
+                    .doFinally(signal -> lease.release());
+        });
+    }
+
+    /**
+     * Only called once a lease exists, so {@code app} is one the monitor knows about and safe as a tag. Each
+     * (app, outcome) timer is registered on first use and then looked up without touching the registry.
+     */
+    private void recordUpstream(String app, long startNanos, String outcome) {
+        upstreamTimers.computeIfAbsent(new UpstreamKey(app, outcome), k -> Timer.builder("ragmon.proxy.upstream")
+                        .description("Time until the proxied app returned response headers")
+                        .tag("app", k.app())
+                        .tag("outcome", k.outcome())
+                        .register(meters))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
 
-        WebClient.RequestBodySpec spec = webClient.method(method == null ? HttpMethod.GET : method)
-                .uri(URI.create(target.toString()))
-                .headers(h -> copyHeaders(headers, h));
+    private static String outcome(HttpStatusCode status) {
+        return switch (status.value() / 100) {
+            case 1 -> "INFORMATIONAL";
+            case 2 -> "SUCCESS";
+            case 3 -> "REDIRECTION";
+            case 4 -> "CLIENT_ERROR";
+            case 5 -> "SERVER_ERROR";
+            default -> "UNKNOWN";
+        };
+    }
 
-        Mono<ClientResponse> exchangeMono = (method == HttpMethod.GET || method == HttpMethod.DELETE)
-                ? spec.exchangeToMono(Mono::just)
-                : spec.body(BodyInserters.fromPublisher(body == null ? Mono.empty() : body, byte[].class))
-                    .exchangeToMono(Mono::just);
+    private static ProxyResponseCache.Entry emptyEntry(HttpStatus status) {
+        return new ProxyResponseCache.Entry(status.value(), new HttpHeaders(), new byte[0]);
+    }
 
-        return exchangeMono.flatMap(resp -> resp.bodyToMono(byte[].class)
-                .defaultIfEmpty(new byte[0])
-                .map(bytes -> ResponseEntity.status(resp.statusCode())
-                        .headers(copyBackHeaders(resp.headers().asHttpHeaders()))
-                        .body(bytes)));
+    private Mono<Void> reply(ProxyResponseCache.Entry e, String cacheStatus, ServerHttpResponse response) {
+        response.setStatusCode(HttpStatusCode.valueOf(e.status()));
+        response.getHeaders().putAll(e.headers());
+        response.getHeaders().setContentLength(e.body().length);
+        response.getHeaders().set(CACHE_HEADER, cacheStatus);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(e.body())));
+    }
+
+    private Mono<Void> relay(ClientResponse upstream, ServerHttpResponse response) {
+        HttpHeaders headers = upstream.headers().asHttpHeaders();
+        response.setStatusCode(upstream.statusCode());
+        response.getHeaders().putAll(copyBackHeaders(headers));
+        Flux<DataBuffer> body = upstream.bodyToFlux(DataBuffer.class);
+        // Event streams and bodies of unknown length are flushed per buffer so each chunk goes out as it arrives
+        boolean streaming = headers.getContentLength() < 0
+                || MediaType.TEXT_EVENT_STREAM.isCompatibleWith(headers.getContentType());
+        return streaming ? response.writeAndFlushWith(body.map(Mono::just)) : response.writeWith(body);
     }
 
     private void copyHeaders(HttpHeaders src, HttpHeaders dst) {
         if (src == null) return;
         for (Map.Entry<String, java.util.List<String>> e : src.entrySet()) {
             String name = e.getKey();
-            if (HttpHeaders.HOST.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            if (HttpHeaders.HOST.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)
+                    || INSTANCE_HEADER.equalsIgnoreCase(name)) {
                 continue;
             }
             dst.put(name, e.getValue());
         }
     }
 
+    @Override
+    public void destroy() {
+        connections.dispose();
+    }
+
     private HttpHeaders copyBackHeaders(HttpHeaders src) {
         HttpHeaders out = new HttpHeaders();
         for (Map.Entry<String, java.util.List<String>> e : src.entrySet()) {
@@ -111,5 +268,3 @@ public class ProxyController {
         return out;
     }
 }
-
-
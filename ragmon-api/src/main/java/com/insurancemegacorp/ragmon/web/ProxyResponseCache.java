@@ -0,0 +1,116 @@
+package com.insurancemegacorp.ragmon.web;
+
+import com.insurancemegacorp.ragmon.config.RagmonProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Opt-in cache for proxied GETs on the routes listed in {@code ragmon.proxy.cache.routes}, each with its own TTL.
+ * Responses are keyed by app, instance pin, path and query and kept in a bounded LRU; only 200s are stored.
+ * Concurrent misses for the same key share one upstream call, so however many dashboards poll a status
+ * endpoint, the app sees at most one request per TTL. Requests carrying credentials always go to the app, and
+ * stored responses lose {@code Set-Cookie} and the headers their {@code Vary} names, so one caller's session is
+ * never replayed to another.
+ */
+@Component
+public class ProxyResponseCache {
+
+    /** A fully read upstream response. */
+    record Entry(int status, HttpHeaders headers, byte[] body) {}
+
+    private record Route(PathPattern pattern, long ttlMs) {}
+
+    private record Stored(Entry entry, long expiresAt) {}
+
+    private final List<Route> routes = new ArrayList<>();
+    private final int maxBodyBytes;
+    private final Map<String, Stored> entries;
+    private final Map<String, Mono<Entry>> inFlight = new ConcurrentHashMap<>();
+
+    public ProxyResponseCache(RagmonProperties props) {
+        RagmonProperties.Proxy.Cache cfg = props.getProxy().getCache();
+        if (cfg.isEnabled()) {
+            for (RagmonProperties.Proxy.Cache.Route r : cfg.getRoutes()) {
+                if (r.getPath() == null || r.getTtlMs() <= 0) continue;
+                routes.add(new Route(PathPatternParser.defaultInstance.parse(r.getPath()), r.getTtlMs()));
+            }
+        }
+        this.maxBodyBytes = Math.max(1, cfg.getMaxBodyBytes());
+        int maxEntries = Math.max(1, cfg.getMaxEntries());
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Stored> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /** TTL of the first route matching {@code path}, or null if responses for it are not cached. */
+    Long ttlFor(String path) {
+        if (routes.isEmpty()) return null;
+        PathContainer p = PathContainer.parsePath(path == null || path.isEmpty() ? "/" : path);
+        for (Route r : routes) {
+            if (r.pattern().matches(p)) return r.ttlMs();
+        }
+        return null;
+    }
+
+    int maxBodyBytes() {
+        return maxBodyBytes;
+    }
+
+    /** Whether {@code request} carries credentials, in which case its response is neither shared nor stored. */
+    static boolean isPrivate(HttpHeaders request) {
+        return request.containsKey(HttpHeaders.AUTHORIZATION) || request.containsKey(HttpHeaders.COOKIE);
+    }
+
+    /** A copy of upstream response headers that is safe to replay to other callers. */
+    static HttpHeaders shareable(HttpHeaders response) {
+        HttpHeaders out = new HttpHeaders();
+        out.putAll(response);
+        out.remove(HttpHeaders.SET_COOKIE);
+        for (String name : response.getVary()) out.remove(name);
+        return out;
+    }
+
+    static String key(String app, String instanceId, String path, String rawQuery) {
+        return app + '|' + (instanceId != null ? instanceId : "") + '|' + path + (rawQuery != null ? '?' + rawQuery : "");
+    }
+
+    /** The stored response for {@code key} if it has not expired. */
+    synchronized Entry cached(String key) {
+        Stored s = entries.get(key);
+        if (s == null) return null;
+        if (s.expiresAt() > System.currentTimeMillis()) return s.entry();
+        entries.remove(key);
+        return null;
+    }
+
+    /**
+     * Runs {@code loader} for {@code key} unless a call for it is already in flight, in which case its result is
+     * shared. A 200 is stored for {@code ttlMs}.
+     */
+    Mono<Entry> load(String key, long ttlMs, Supplier<Mono<Entry>> loader) {
+        return inFlight.computeIfAbsent(key, k -> loader.get()
+                .doOnNext(e -> {
+                    if (e.status() == 200 && !e.headers().getVary().contains("*")) store(k, e, ttlMs);
+                })
+                .doFinally(signal -> inFlight.remove(k))
+                .cache());
+    }
+
+    private synchronized void store(String key, Entry e, long ttlMs) {
+        entries.put(key, new Stored(e, System.currentTimeMillis() + ttlMs));
+    }
+}
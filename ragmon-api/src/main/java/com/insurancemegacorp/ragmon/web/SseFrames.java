@@ -0,0 +1,97 @@
+package com.insurancemegacorp.ragmon.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurancemegacorp.ragmon.config.RagmonProperties;
+import com.insurancemegacorp.ragmon.model.Event;
+import com.insurancemegacorp.ragmon.service.EventStore;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Encodes stream items into complete SSE frames ({@code id:}, {@code data:} and the blank line) so an event is
+ * serialized once no matter how many clients receive it. Frames of recent events are kept in a small ring
+ * addressed by sequence; every subscriber after the first gets the same immutable bytes. Ids are
+ * {@code <epoch>-<seq>}, so a client reconnecting with an id from before a restart can be told apart from one
+ * that is merely behind.
+ */
+@Component
+public class SseFrames {
+    static final byte[] HEARTBEAT = ascii("event:heartbeat\ndata:\n\n");
+    static final byte[] RESET = ascii("event:reset\ndata:\n\n");
+
+    private record Cached(long seq, byte[] frame) {}
+
+    private final ObjectMapper objectMapper;
+    private final String epoch;
+    private final AtomicReferenceArray<Cached> cache;
+    private final int mask;
+
+    public SseFrames(ObjectMapper objectMapper, RagmonProperties props, EventStore store) {
+        this.objectMapper = objectMapper;
+        this.epoch = store.epoch();
+        int size = Integer.highestOneBit(Math.max(1, props.getStream().getFrameCacheSize()));
+        this.cache = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /** The frame for one stream item; events carry their sequence as the SSE id. */
+    public byte[] frame(Object item) {
+        if (!(item instanceof Event e) || e.getSeq() == null) return encode(null, null, item);
+        long seq = e.getSeq();
+        int idx = (int) (seq & mask);
+        Cached cached = cache.get(idx);
+        if (cached != null && cached.seq() == seq) return cached.frame();
+        byte[] frame = encode(id(seq), null, item);
+        cache.set(idx, new Cached(seq, frame));
+        return frame;
+    }
+
+    /** Tells a client that overflowed its buffer where to resume; the id makes EventSource resume there. */
+    public byte[] overflow(Long resumeFrom) {
+        if (resumeFrom == null) return encode(null, "overflow", Map.of());
+        String id = id(resumeFrom);
+        return encode(id, "overflow", Map.of("resumeFrom", id));
+    }
+
+    String id(long seq) {
+        return epoch + '-' + seq;
+    }
+
+    /** The sequence in an id this process issued, or null for a missing, malformed or previous-epoch id. */
+    Long sequenceOf(String id) {
+        if (id == null) return null;
+        String s = id.trim();
+        int dash = epoch.length();
+        if (s.length() <= dash + 1 || s.charAt(dash) != '-' || !s.startsWith(epoch)) return null;
+        try {
+            return Long.parseLong(s.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private byte[] encode(String id, String eventName, Object data) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(data);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize stream item", ex);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length + 32);
+        if (id != null) out.writeBytes(ascii("id:" + id + "\n"));
+        if (eventName != null) out.writeBytes(ascii("event:" + eventName + "\n"));
+        out.writeBytes(ascii("data:"));
+        out.writeBytes(json); // compact JSON never contains a raw newline
+        out.writeBytes(ascii("\n\n"));
+        return out.toByteArray();
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -1,11 +1,24 @@
 package com.insurancemegacorp.ragmon.web;
 
+import com.insurancemegacorp.ragmon.config.RagmonProperties;
+import com.insurancemegacorp.ragmon.service.EventFilter;
 import com.insurancemegacorp.ragmon.service.EventStore;
+import com.insurancemegacorp.ragmon.service.HeartbeatConflator;
+import com.insurancemegacorp.ragmon.service.OverflowPolicy;
+import com.insurancemegacorp.ragmon.service.SlowConsumerException;
+import com.insurancemegacorp.ragmon.service.StreamSubscribers;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
 import java.time.Duration;
 
@@ -13,19 +26,70 @@ import java.time.Duration;
 public class StreamController {
 
     private final EventStore store;
+    private final StreamSubscribers subscribers;
+    private final SseFrames frames;
+    private final RagmonProperties.Stream streamProps;
 
-    public StreamController(EventStore store) {
+    public StreamController(EventStore store, StreamSubscribers subscribers, SseFrames frames, RagmonProperties props) {
         this.store = store;
+        this.subscribers = subscribers;
+        this.frames = frames;
+        this.streamProps = props.getStream();
     }
 
+    /**
+     * Every event carries {@code <epoch>-<seq>} as the SSE id. A reconnect that sends {@code Last-Event-ID}
+     * (or {@code lastEventId} as a query parameter, for clients that recreate their EventSource) first receives
+     * the events it missed. If some of them were already evicted, or the id predates a restart, it gets a
+     * {@code reset} event telling it to refetch, followed by live events.
+     * Optional {@code app}, {@code stage}, {@code instanceId}, {@code event} and {@code status} parameters
+     * (each a value or a comma-separated list) are applied before serialization. With {@code conflate=true},
+     * heartbeats are coalesced per instance and sent at most once per {@code ragmon.stream.conflateIntervalMs}.
+     * Each client gets its own bounded buffer; {@code overflow} overrides the configured policy, and under
+     * {@code disconnect} a slow client receives an {@code overflow} event whose id is the point to resume from.
+     * Frames are written pre-encoded by {@link SseFrames}, so each event is serialized once for all clients.
+     */
     @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public Flux<ServerSentEvent<?>> stream() {
-        Flux<ServerSentEvent<?>> events = store.stream()
-                .map(e -> ServerSentEvent.builder(e).build());
-        Flux<ServerSentEvent<?>> heartbeat = Flux.interval(Duration.ZERO, Duration.ofSeconds(5))
-                .map(tick -> ServerSentEvent.builder("")
-                        .event("heartbeat")
-                        .build());
-        return Flux.merge(heartbeat, events);
+    public Mono<Void> stream(ServerHttpResponse response,
+                             @RequestHeader(name = "Last-Event-ID", required = false) String lastEventIdHeader,
+                             @RequestParam(name = "lastEventId", required = false) String lastEventIdParam,
+                             @RequestParam(required = false) String app,
+                             @RequestParam(required = false) String stage,
+                             @RequestParam(required = false) String instanceId,
+                             @RequestParam(required = false) String event,
+                             @RequestParam(required = false) String status,
+                             @RequestParam(required = false) Boolean conflate,
+                             @RequestParam(required = false) String overflow) {
+        OverflowPolicy policy = overflow == null ? null : OverflowPolicy.fromLabel(overflow);
+        if (overflow != null && policy == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "overflow must be one of drop-oldest, conflate, disconnect");
+        }
+        String rawId = lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam;
+        Long lastEventId = frames.sequenceOf(rawId);
+        // Ids from before a restart, from the future or already evicted can't be resumed; start live after a reset
+        boolean resume = lastEventId != null && store.canResumeFrom(lastEventId);
+        boolean reset = rawId != null && !rawId.isBlank() && !resume;
+        EventFilter filter = EventFilter.of(app, stage, instanceId, event, status);
+        Flux<Object> source = resume ? store.streamSince(lastEventId) : store.stream();
+        if (!filter.isEmpty()) source = source.filter(filter);
+        if (conflate != null ? conflate : streamProps.isConflate()) {
+            source = HeartbeatConflator.conflate(source, Duration.ofMillis(Math.max(1, streamProps.getConflateIntervalMs())));
+        }
+        Sinks.Empty<Void> ended = Sinks.empty();
+        Flux<byte[]> events = subscribers.attach("events", source, policy)
+                .map(frames::frame)
+                .onErrorResume(SlowConsumerException.class, ex -> Flux.just(frames.overflow(
+                        ex.getResumeFrom() != null ? ex.getResumeFrom() : resume ? lastEventId : null)))
+                .doOnTerminate(ended::tryEmitEmpty);
+        if (reset) {
+            events = events.startWith(SseFrames.RESET);
+        }
+        Flux<byte[]> heartbeat = Flux.interval(Duration.ZERO, Duration.ofSeconds(5))
+                .map(tick -> SseFrames.HEARTBEAT);
+        response.getHeaders().setContentType(MediaType.TEXT_EVENT_STREAM);
+        DataBufferFactory buffers = response.bufferFactory();
+        // wrap() shares the encoded bytes instead of copying them into a per-client buffer
+        return response.writeAndFlushWith(Flux.merge(heartbeat.takeUntilOther(ended.asMono()), events)
+                .map(frame -> Mono.just(buffers.wrap(frame))));
     }
 }
@@ -4,10 +4,15 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.insurancemegacorp.ragmon.config.RagmonProperties;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Instant;
 import java.util.HashMap;
@@ -21,11 +26,14 @@ public class TestPublishController {
     private final RabbitTemplate rabbitTemplate;
     private final RagmonProperties props;
     private final ObjectMapper objectMapper;
+    private final LoadGenerator loadGenerator;
 
-    public TestPublishController(RabbitTemplate rabbitTemplate, RagmonProperties props, ObjectMapper objectMapper) {
+    public TestPublishController(RabbitTemplate rabbitTemplate, RagmonProperties props, ObjectMapper objectMapper,
+                                 LoadGenerator loadGenerator) {
         this.rabbitTemplate = rabbitTemplate;
         this.props = props;
         this.objectMapper = objectMapper;
+        this.loadGenerator = loadGenerator;
     }
 
     @PostMapping("/publish")
@@ -47,4 +55,47 @@ public class TestPublishController {
         rabbitTemplate.convertAndSend("", props.getRabbit().getMonitorQueue(), json);
         return Map.of("sentTo", props.getRabbit().getMonitorQueue(), "payload", payload);
     }
+
+    /**
+     * Starts a load run of {@code apps × instancesPerApp} simulated services sending {@code rate} messages per
+     * second in total, for {@code durationSeconds} (0 runs until stopped). {@code target=direct} feeds the listener
+     * in-process; {@code broker} publishes to the monitor queue. See {@link LoadGenerator}.
+     */
+    @PostMapping("/load")
+    public LoadGenerator.Report startLoad(@RequestParam(defaultValue = "10") int apps,
+                                          @RequestParam(defaultValue = "10") int instancesPerApp,
+                                          @RequestParam(defaultValue = "1000") double rate,
+                                          @RequestParam(defaultValue = "60") int durationSeconds,
+                                          @RequestParam(defaultValue = "direct") String target,
+                                          @RequestParam(defaultValue = "50") int batchSize,
+                                          @RequestParam(defaultValue = "1") int producers,
+                                          @RequestParam(defaultValue = "0.02") double errorRate) {
+        LoadGenerator.Target t;
+        try {
+            t = LoadGenerator.Target.valueOf(target.toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "target must be direct or broker");
+        }
+        if (apps < 1 || instancesPerApp < 1 || rate <= 0 || durationSeconds < 0 || batchSize < 1 || producers < 1
+                || errorRate < 0 || errorRate > 0.75) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid load parameters");
+        }
+        return loadGenerator.start(new LoadGenerator.Spec(apps, instancesPerApp, rate, durationSeconds, t,
+                batchSize, producers, errorRate));
+    }
+
+    /** Progress of the current or last run; {@code gc=true} collects first so heap growth shows retained memory. */
+    @GetMapping("/load")
+    public LoadGenerator.Report loadReport(@RequestParam(defaultValue = "false") boolean gc) {
+        LoadGenerator.Report report = loadGenerator.report(gc);
+        if (report == null) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "no load run");
+        return report;
+    }
+
+    @DeleteMapping("/load")
+    public LoadGenerator.Report stopLoad() {
+        LoadGenerator.Report report = loadGenerator.stop();
+        if (report == null) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "no load run");
+        return report;
+    }
 }
@@ -0,0 +1,108 @@
+package com.insurancemegacorp.ragmon.amqp;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.insurancemegacorp.ragmon.model.Event;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MonitoringMessageDecoderTest {
+    private final MonitoringMessageDecoder decoder = new MonitoringMessageDecoder(new JsonFactory(), 8080);
+
+    @Test
+    void decodesServiceFormatHeartbeat() throws IOException {
+        MonitoringMessageDecoder.Decoded d = decode("""
+                {
+                  "instanceId": "hdfsWatcher-68927@ultron-m4.local",
+                  "timestamp": "2025-08-08T13:28:16.219026-04:00",
+                  "event": "HEARTBEAT",
+                  "status": "RUNNING",
+                  "url": "http://localhost:8081",
+                  "filesProcessed": 45,
+                  "processingRate": 2.5,
+                  "memoryUsedMB": 120,
+                  "lastError": null,
+                  "bootEpoch": 1723141096,
+                  "version": "1.2.0",
+                  "meta": {
+                    "service": "hdfsWatcher",
+                    "processingStage": "processing",
+                    "localStoragePath": "/tmp/in",
+                    "tags": ["a", "b"]
+                  }
+                }
+                """);
+
+        assertTrue(d.serviceFormat());
+        assertTrue(d.heartbeat());
+        assertEquals("hdfsWatcher-68927@ultron-m4.local", d.instanceId());
+        assertEquals(1723141096L, d.bootEpoch());
+        assertEquals("1.2.0", d.version());
+        assertEquals("/tmp/in", d.meta().get("localStoragePath"));
+        Event e = d.event();
+        assertEquals("hdfsWatcher", e.getApp());
+        assertEquals("processing", e.getStage());
+        assertEquals("HEARTBEAT", e.getEvent());
+        assertEquals("RUNNING", e.getStatus());
+        assertEquals("http://localhost:8081", e.getUrl());
+        assertEquals(45L, e.getFilesProcessed());
+        assertEquals(2.5, e.getProcessingRate());
+        assertEquals(120.0, e.getMemoryUsedMB());
+        assertNull(e.getMessage());
+        assertEquals(OffsetDateTime.parse("2025-08-08T13:28:16.219026-04:00").toInstant().toEpochMilli(), e.getTimestamp());
+    }
+
+    @Test
+    void detectsServiceFormatWhenMetaComesFirst() throws IOException {
+        MonitoringMessageDecoder.Decoded d = decode("""
+                {"meta": {"service": "textProc", "inputMode": "cloud"}, "event": "INIT", "instanceId": "t-1",
+                 "hostname": "textproc.internal", "timestamp": 1000}
+                """);
+
+        assertTrue(d.serviceFormat());
+        assertTrue(d.heartbeat());
+        assertEquals("textProc", d.event().getApp());
+        assertEquals("cloud", d.event().getStage());
+        assertEquals("http://textproc.internal:8080", d.event().getUrl());
+        assertEquals(1000L, d.event().getTimestamp());
+    }
+
+    @Test
+    void decodesLegacyFormat() throws IOException {
+        MonitoringMessageDecoder.Decoded d = decode("""
+                {"app": "embedProc", "stage": "embed", "event": "FILE_PROCESSED", "docId": "doc-42",
+                 "timestamp": 1723141096219, "latencyMs": 87, "status": "OK", "message": "chunk embedded",
+                 "url": "http://localhost:8082", "unknown": {"nested": [1, 2]}}
+                """);
+
+        assertFalse(d.serviceFormat());
+        assertFalse(d.heartbeat());
+        Event e = d.event();
+        assertEquals("embedProc", e.getApp());
+        assertEquals("embed", e.getStage());
+        assertEquals("FILE_PROCESSED", e.getEvent());
+        assertEquals("doc-42", e.getDocId());
+        assertEquals(1723141096219L, e.getTimestamp());
+        assertEquals(87L, e.getLatencyMs());
+        assertEquals("OK", e.getStatus());
+        assertEquals("chunk embedded", e.getMessage());
+        assertEquals("http://localhost:8082", e.getUrl());
+    }
+
+    @Test
+    void rejectsNonObjectPayload() {
+        assertThrows(IOException.class, () -> decode("[1, 2, 3]"));
+    }
+
+    private MonitoringMessageDecoder.Decoded decode(String json) throws IOException {
+        return decoder.decode(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,74 @@
+package com.insurancemegacorp.ragmon.journal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurancemegacorp.ragmon.model.Event;
+import org.junit.jupiter.api.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EventCodecTest {
+    private final ObjectMapper json = new ObjectMapper();
+
+    @Test
+    void roundTripsEveryField() {
+        Event e = new Event();
+        e.setApp("hdfsWatcher");
+        e.setStage("processing");
+        e.setEvent("HEARTBEAT");
+        e.setInstanceId("hdfsWatcher-1@host");
+        e.setDocId("doc-1");
+        e.setTimestamp(1_723_141_096_219L);
+        e.setLatencyMs(87L);
+        e.setStatus("RUNNING");
+        e.setMessage("héllo – ✓");
+        e.setUrl("http://localhost:8081");
+        e.setUptime("0h 10m 42s");
+        e.setHostname("localhost");
+        e.setPublicHostname("public.example");
+        e.setCurrentFile("data/input/file123.txt");
+        e.setFilesProcessed(45L);
+        e.setFilesTotal(100L);
+        e.setTotalChunks(450L);
+        e.setProcessedChunks(225L);
+        e.setProcessingRate(2.5);
+        e.setErrorCount(-1L);
+        e.setMemoryUsedMB(120.25);
+        e.setPendingMessages(3L);
+        e.setFilename("file123.txt");
+
+        assertEquals(json.valueToTree(e), json.valueToTree(roundTrip(e)));
+    }
+
+    @Test
+    void roundTripsSparseEventWithoutInventingFields() {
+        Event e = new Event();
+        e.setApp("embedProc");
+        e.setTimestamp(42L);
+
+        Event decoded = roundTrip(e);
+
+        assertEquals(json.valueToTree(e), json.valueToTree(decoded));
+        assertFalse(json.valueToTree(decoded).has("status"));
+    }
+
+    @Test
+    void rejectsEventLargerThanBuffer() {
+        Event e = new Event();
+        e.setMessage("x".repeat(64));
+        assertThrows(BufferOverflowException.class, () -> EventCodec.encode(e, ByteBuffer.allocate(16)));
+    }
+
+    private static Event roundTrip(Event e) {
+        ByteBuffer buf = ByteBuffer.allocate(4096);
+        EventCodec.encode(e, buf);
+        buf.flip();
+        Event decoded = EventCodec.decode(buf);
+        assertFalse(buf.hasRemaining());
+        return decoded;
+    }
+}
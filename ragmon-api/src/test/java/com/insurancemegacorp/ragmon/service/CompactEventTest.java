@@ -0,0 +1,105 @@
+package com.insurancemegacorp.ragmon.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurancemegacorp.ragmon.model.Event;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CompactEventTest {
+    private final ObjectMapper json = new ObjectMapper();
+    private final CompactEvent.Codec codec = new CompactEvent.Codec();
+
+    @Test
+    void roundTripsEveryField() {
+        Event e = new Event();
+        e.setSeq(7L);
+        e.setApp("textProc");
+        e.setStage("chunk");
+        e.setEvent("FILE_PROCESSED");
+        e.setInstanceId("textProc-2@host");
+        e.setDocId("doc-9");
+        e.setTimestamp(1_723_141_096_219L);
+        e.setLatencyMs(-5L);
+        e.setStatus("PROCESSING");
+        e.setMessage("naïve ✓");
+        e.setUrl("http://textproc:8080");
+        e.setUptime("1h 0m 0s");
+        e.setHostname("textproc");
+        e.setPublicHostname("textproc.example");
+        e.setCurrentFile("a.txt");
+        e.setFilesProcessed(Long.MAX_VALUE);
+        e.setFilesTotal(0L);
+        e.setTotalChunks(Long.MIN_VALUE);
+        e.setProcessedChunks(300L);
+        e.setProcessingRate(-0.5);
+        e.setErrorCount(2L);
+        e.setMemoryUsedMB(512.5);
+        e.setPendingMessages(1L);
+        e.setFilename("a.txt");
+
+        Event decoded = codec.decode(7L, e.getTimestamp(), codec.encode(e));
+
+        assertEquals(json.valueToTree(e), json.valueToTree(decoded));
+    }
+
+    @Test
+    void leavesAbsentFieldsNull() {
+        Event e = new Event();
+        e.setApp("hdfsWatcher");
+        e.setEvent("HEARTBEAT");
+        e.setTimestamp(1L);
+
+        Event decoded = codec.decode(0L, 1L, codec.encode(e));
+
+        assertEquals("hdfsWatcher", decoded.getApp());
+        assertEquals("HEARTBEAT", decoded.getEvent());
+        assertNull(decoded.getStage());
+        assertNull(decoded.getStatus());
+        assertNull(decoded.getLatencyMs());
+        assertNull(decoded.getMessage());
+    }
+
+    @Test
+    void sharesDictionaryIdsAcrossEvents() {
+        Event a = new Event();
+        a.setApp("embedProc");
+        a.setStatus("RUNNING");
+        Event b = new Event();
+        b.setApp("embedProc");
+        b.setStatus("ERROR");
+
+        CompactEvent ca = codec.encode(a);
+        CompactEvent cb = codec.encode(b);
+
+        assertEquals(ca.app, cb.app);
+        assertEquals("RUNNING", codec.status(ca));
+        assertEquals("ERROR", codec.status(cb));
+    }
+
+    @Test
+    void poolsInstanceIdsOnlyWhileRetained() {
+        CompactEvent first = codec.encode(withInstance(new String("embedProc-1@host")));
+        CompactEvent second = codec.encode(withInstance(new String("embedProc-1@host")));
+        assertSame(first.instanceId, second.instanceId);
+
+        codec.release(first);
+        CompactEvent third = codec.encode(withInstance(new String("embedProc-1@host")));
+        assertSame(second.instanceId, third.instanceId);
+
+        codec.release(second);
+        codec.release(third);
+        // Every hold is gone, so the value was dropped and a new event brings its own copy
+        assertNotSame(first.instanceId, codec.encode(withInstance(new String("embedProc-1@host"))).instanceId);
+    }
+
+    private static Event withInstance(String instanceId) {
+        Event e = new Event();
+        e.setApp("embedProc");
+        e.setInstanceId(instanceId);
+        return e;
+    }
+}
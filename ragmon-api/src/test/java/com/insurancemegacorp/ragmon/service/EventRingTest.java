@@ -0,0 +1,67 @@
+package com.insurancemegacorp.ragmon.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class EventRingTest {
+    private final List<Long> evicted = new ArrayList<>();
+
+    @Test
+    void wrapsAroundKeepingTheNewestEvents() {
+        EventRing ring = new EventRing(4, e -> evicted.add(e.seq()));
+        for (int i = 0; i < 10; i++) ring.append("e" + i, i);
+
+        assertEquals(4, ring.size());
+        assertEquals(6, ring.tailSequence());
+        assertEquals(10, ring.headSequence());
+        assertEquals(List.of(6L, 7L, 8L, 9L), sequences(ring, 0));
+        assertEquals(List.of(0L, 1L, 2L, 3L, 4L, 5L), evicted);
+        assertNull(ring.get(5));
+        assertEquals("e9", ring.get(9).event());
+    }
+
+    @Test
+    void capsAtMaxEventsWhenCapacityIsRoundedUp() {
+        EventRing ring = new EventRing(5, e -> evicted.add(e.seq()));
+        for (int i = 0; i < 12; i++) ring.append("e" + i, i);
+
+        assertEquals(5, ring.size());
+        assertEquals(List.of(7L, 8L, 9L, 10L, 11L), sequences(ring, 0));
+        assertEquals(List.of(9L, 10L, 11L), sequences(ring, 9));
+    }
+
+    @Test
+    void evictsByAgeFromTheTail() {
+        EventRing ring = new EventRing(8, e -> evicted.add(e.seq()));
+        for (int i = 0; i < 6; i++) ring.append("e" + i, i * 100L);
+
+        ring.evictOlderThan(250);
+
+        assertEquals(List.of(0L, 1L, 2L), evicted);
+        assertEquals(3, ring.tailSequence());
+        assertNotNull(ring.get(3));
+    }
+
+    @Test
+    void descendingVisitStopsAtTheTail() {
+        EventRing ring = new EventRing(4, e -> evicted.add(e.seq()));
+        for (int i = 0; i < 7; i++) ring.append("e" + i, i);
+
+        List<Long> seen = new ArrayList<>();
+        ring.forEachDescending(e -> seen.add(e.seq()));
+
+        assertEquals(List.of(6L, 5L, 4L, 3L), seen);
+    }
+
+    private static List<Long> sequences(EventRing ring, long from) {
+        List<Long> out = new ArrayList<>();
+        ring.forEach(from, e -> out.add(e.seq()));
+        return out;
+    }
+}
@@ -0,0 +1,158 @@
+package com.insurancemegacorp.ragmon.service;
+
+import com.insurancemegacorp.ragmon.config.RagmonProperties;
+import com.insurancemegacorp.ragmon.model.Event;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InstanceRegistryTest {
+    private static final long START = 1_000_000;
+
+    private long now = START;
+    private EventStore store;
+    private InstanceRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        RagmonProperties props = new RagmonProperties();
+        props.getInstances().setActivityWindowSeconds(1);
+        props.getInstances().setOfflineWindowSeconds(60);
+        props.getInstances().setTimerTickMs(50);
+        MeterRegistry meters = new SimpleMeterRegistry();
+        store = new EventStore(props, List.of(), meters);
+        registry = new InstanceRegistry(props.getInstances(), store, meters, () -> now, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.close();
+    }
+
+    @Test
+    void reportsInstanceAsRunningUntilItGoesQuiet() {
+        registry.updateFromMessage("app", "a", "http://a:8080", null, true, null, null, null);
+
+        advanceTo(START + 999);
+        assertEquals("RUNNING", status("a"));
+
+        advanceTo(START + 1_100);
+        assertEquals(InstanceRegistry.OFFLINE, status("a"));
+    }
+
+    @Test
+    void returningInstanceGoesOfflineAgainAfterTheActivityWindow() {
+        registry.restore("app", "a", "http://a:8080", "RUNNING", true, START - 2_000);
+        assertEquals(InstanceRegistry.OFFLINE, status("a"));
+
+        registry.updateFromMessage("app", "a", null, "RUNNING", true, null, null, null);
+        assertEquals("RUNNING", status("a"));
+
+        // The deadline armed while offline is ~58s away; coming back must arm one at the end of the activity window
+        advanceTo(START + 1_100);
+        assertEquals(InstanceRegistry.OFFLINE, status("a"));
+    }
+
+    @Test
+    void heartbeatsKeepAnInstanceRunning() {
+        registry.updateFromMessage("app", "a", "http://a:8080", null, true, null, null, null);
+        for (long t = START + 500; t <= START + 5_000; t += 500) {
+            advanceTo(t);
+            registry.updateFromMessage("app", "a", null, null, true, null, null, null);
+        }
+
+        advanceTo(START + 5_900);
+        assertEquals("RUNNING", status("a"));
+    }
+
+    @Test
+    void removesInstanceAfterTheOfflineWindow() {
+        registry.updateFromMessage("app", "a", "http://a:8080", null, true, null, null, null);
+
+        advanceTo(START + 1_100);
+        advanceTo(START + 59_000);
+        assertEquals(InstanceRegistry.OFFLINE, status("a"));
+
+        advanceTo(START + 60_100);
+        assertNull(status("a"));
+    }
+
+    @Test
+    void transitionsAreStreamedButNotStored() {
+        List<Object> streamed = new CopyOnWriteArrayList<>();
+        Disposable subscription = store.stream().subscribe(streamed::add);
+        try {
+            registry.restore("app", "a", "http://a:8080", "RUNNING", true, START - 2_000);
+            registry.updateFromMessage("app", "a", null, "RUNNING", true, null, null, null);
+            advanceTo(START + 1_100);
+        } finally {
+            subscription.dispose();
+        }
+
+        assertEquals(List.of(InstanceRegistry.ONLINE, InstanceRegistry.OFFLINE),
+                streamed.stream().map(o -> ((Event) o).getEvent()).toList());
+        assertTrue(store.recentEvents().isEmpty());
+        assertTrue(store.metricsCountsByStatus().isEmpty());
+    }
+
+    @Test
+    void listIsSharedUntilTheNextChange() {
+        registry.updateFromMessage("app", "a", "http://a:8080", "RUNNING", true, null, null, null);
+        List<InstanceRegistry.Instance> first = registry.list();
+        assertSame(first, registry.list());
+
+        registry.updateFromMessage("app", "b", "http://b:8080", "RUNNING", true, null, null, null);
+        List<InstanceRegistry.Instance> second = registry.list();
+
+        assertNotSame(first, second);
+        assertEquals(1, first.size());
+        assertEquals(2, second.size());
+        assertThrows(UnsupportedOperationException.class, () -> second.remove(0));
+    }
+
+    @Test
+    void snapshotThenChangesSkipsNothingAndRepeatsNothing() {
+        registry.updateFromMessage("app", "a", "http://a:8080", "RUNNING", true, null, null, null);
+        List<Object> items = new CopyOnWriteArrayList<>();
+        Disposable subscription = registry.snapshotThenChanges().subscribe(items::add);
+        try {
+            registry.updateFromMessage("app", "b", "http://b:8080", "RUNNING", true, null, null, null);
+        } finally {
+            subscription.dispose();
+        }
+
+        InstanceRegistry.Snapshot snapshot = (InstanceRegistry.Snapshot) items.get(0);
+        assertEquals(List.of("a"), snapshot.instances().stream().map(InstanceRegistry.Instance::instanceId).toList());
+        assertEquals(2, items.size());
+        InstanceRegistry.InstanceChange added = (InstanceRegistry.InstanceChange) items.get(1);
+        assertEquals(InstanceRegistry.ChangeType.ADDED, added.type());
+        assertEquals("b", added.instanceId());
+        assertTrue(added.version() > snapshot.version());
+    }
+
+    private void advanceTo(long t) {
+        now = t;
+        registry.advance();
+    }
+
+    private String status(String instanceId) {
+        return registry.list().stream()
+                .filter(i -> i.instanceId().equals(instanceId))
+                .map(InstanceRegistry.Instance::status)
+                .findFirst()
+                .orElse(null);
+    }
+}
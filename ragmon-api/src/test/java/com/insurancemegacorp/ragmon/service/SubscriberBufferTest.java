@@ -0,0 +1,137 @@
+package com.insurancemegacorp.ragmon.service;
+
+import com.insurancemegacorp.ragmon.model.Event;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SubscriberBufferTest {
+    private final List<Object> received = new ArrayList<>();
+    private Throwable error;
+    private boolean completed;
+    private SubscriberBuffer buffer;
+    private BaseSubscriber<Object> client;
+
+    @Test
+    void dropOldestKeepsTheNewestItems() {
+        open(OverflowPolicy.DROP_OLDEST, 3);
+        for (long seq = 1; seq <= 5; seq++) buffer.offer(event(seq, "FILE_PROCESSED", "a"));
+
+        client.request(10);
+
+        assertEquals(List.of(3L, 4L, 5L), sequences());
+        assertEquals(2, buffer.stats().dropped());
+        assertNull(error);
+    }
+
+    @Test
+    void conflatedHeartbeatIsNotDeliveredAheadOfLaterEvents() {
+        open(OverflowPolicy.CONFLATE, 10);
+        buffer.offer(event(1, "HEARTBEAT", "a"));
+        buffer.offer(event(2, "FILE_PROCESSED", "a"));
+        buffer.offer(event(3, "FILE_PROCESSED", "b"));
+        buffer.offer(event(4, "HEARTBEAT", "a"));
+
+        client.request(10);
+
+        assertEquals(List.of(2L, 3L, 4L), sequences());
+        assertEquals(1, buffer.stats().conflated());
+        assertEquals(4L, buffer.stats().lastDeliveredSeq());
+    }
+
+    @Test
+    void conflateKeepsHeartbeatsOfDifferentInstances() {
+        open(OverflowPolicy.CONFLATE, 10);
+        buffer.offer(event(1, "HEARTBEAT", "a"));
+        buffer.offer(event(2, "HEARTBEAT", "b"));
+        buffer.offer(event(3, "HEARTBEAT", "a"));
+
+        client.request(10);
+
+        assertEquals(List.of(2L, 3L), sequences());
+    }
+
+    @Test
+    void disconnectEndsTheStreamWithTheLastDeliveredSequence() {
+        open(OverflowPolicy.DISCONNECT, 2);
+        client.request(1);
+        buffer.offer(event(1, "FILE_PROCESSED", "a"));
+        buffer.offer(event(2, "FILE_PROCESSED", "a"));
+        buffer.offer(event(3, "FILE_PROCESSED", "a"));
+        buffer.offer(event(4, "FILE_PROCESSED", "a"));
+
+        assertEquals(List.of(1L), sequences());
+        SlowConsumerException ex = assertInstanceOf(SlowConsumerException.class, error);
+        assertEquals(1L, ex.getResumeFrom());
+        assertEquals(3, buffer.stats().dropped());
+    }
+
+    @Test
+    void completesOnlyOnceTheBufferIsDrained() {
+        open(OverflowPolicy.DROP_OLDEST, 4);
+        buffer.offer(event(1, "FILE_PROCESSED", "a"));
+        buffer.complete();
+        assertFalse(completed);
+
+        client.request(1);
+
+        assertEquals(List.of(1L), sequences());
+        assertTrue(completed);
+    }
+
+    private void open(OverflowPolicy policy, int capacity) {
+        Flux<Object> flux = Flux.create(sink -> {
+            buffer = new SubscriberBuffer(1, "test", policy, capacity, sink, new SimpleMeterRegistry().counter("dropped"));
+            sink.onRequest(n -> buffer.drain());
+        }, FluxSink.OverflowStrategy.ERROR);
+        client = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                // No demand until a test asks for it
+            }
+
+            @Override
+            protected void hookOnNext(Object value) {
+                received.add(value);
+            }
+
+            @Override
+            protected void hookOnError(Throwable throwable) {
+                error = throwable;
+            }
+
+            @Override
+            protected void hookOnComplete() {
+                completed = true;
+            }
+        };
+        flux.subscribe(client);
+    }
+
+    private List<Long> sequences() {
+        return received.stream().map(o -> ((Event) o).getSeq()).toList();
+    }
+
+    private static Event event(long seq, String type, String instanceId) {
+        Event e = new Event();
+        e.setSeq(seq);
+        e.setApp("app");
+        e.setInstanceId(instanceId);
+        e.setEvent(type);
+        e.setStatus("RUNNING");
+        e.setTimestamp(seq);
+        return e;
+    }
+}
@@ -0,0 +1,64 @@
+package com.insurancemegacorp.ragmon.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TimerWheelTest {
+    private final List<String> fired = new ArrayList<>();
+
+    @Test
+    void firesOnTheFirstTickAtOrAfterTheDeadline() {
+        TimerWheel<String> wheel = new TimerWheel<>(10, 4, 0);
+        wheel.schedule("a", 25);
+
+        wheel.advance(29, fired::add);
+        assertEquals(List.of(), fired);
+
+        wheel.advance(30, fired::add);
+        assertEquals(List.of("a"), fired);
+    }
+
+    @Test
+    void keepsDeadlinesBeyondOneRotationUntilTheirTick() {
+        TimerWheel<String> wheel = new TimerWheel<>(10, 4, 0);
+        wheel.schedule("far", 95); // tick 10 shares a slot with ticks 2 and 6
+
+        wheel.advance(60, fired::add);
+        assertEquals(List.of(), fired);
+
+        wheel.advance(100, fired::add);
+        assertEquals(List.of("far"), fired);
+    }
+
+    @Test
+    void pastDeadlinesFireOnTheNextAdvance() {
+        TimerWheel<String> wheel = new TimerWheel<>(10, 4, 0);
+        wheel.advance(100, fired::add);
+        wheel.schedule("late", 5);
+
+        wheel.advance(110, fired::add);
+
+        assertEquals(List.of("late"), fired);
+    }
+
+    @Test
+    void expiryMayRescheduleForALaterTick() {
+        TimerWheel<String> wheel = new TimerWheel<>(10, 4, 0);
+        wheel.schedule("again", 10);
+        List<Long> firedAt = new ArrayList<>();
+
+        for (long now = 0; now <= 100; now += 10) {
+            long at = now;
+            wheel.advance(now, item -> {
+                firedAt.add(at);
+                if (firedAt.size() < 3) wheel.schedule(item, at + 40);
+            });
+        }
+
+        assertEquals(List.of(10L, 50L, 90L), firedAt);
+    }
+}
@@ -0,0 +1,73 @@
+package com.insurancemegacorp.ragmon.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurancemegacorp.ragmon.amqp.MonitoringListener;
+import com.insurancemegacorp.ragmon.amqp.MonitoringMessageDecoder;
+import com.insurancemegacorp.ragmon.config.RagmonProperties;
+import com.insurancemegacorp.ragmon.service.EventStore;
+import com.insurancemegacorp.ragmon.service.InstanceRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Message decoding for both payload formats, and the whole listener path (decode, registry update, store
+ * append) for a broker-sized batch.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DecodeBenchmark {
+
+    @Param({"heartbeat.json", "init.json", "error.json", "legacy.json"})
+    public String fixture;
+
+    private MonitoringMessageDecoder decoder;
+    private byte[] body;
+
+    private EventStore store;
+    private InstanceRegistry registry;
+    private MonitoringListener listener;
+    private List<Message> batch;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper = new ObjectMapper();
+        RagmonProperties props = Fixtures.properties("ring", 10_000);
+        MeterRegistry meters = new SimpleMeterRegistry();
+        decoder = new MonitoringMessageDecoder(mapper.getFactory(), props.getApps().getDefaultPort());
+        body = Fixtures.resource(fixture);
+
+        store = new EventStore(props, List.of(), meters);
+        registry = new InstanceRegistry(props.getInstances(), store, meters);
+        listener = new MonitoringListener(mapper, store, props, registry, meters);
+        batch = new ArrayList<>();
+        for (int i = 0; i < 50; i++) batch.add(new Message(body, new MessageProperties()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        registry.close();
+    }
+
+    @Benchmark
+    public MonitoringMessageDecoder.Decoded decode() throws IOException {
+        return decoder.decode(body);
+    }
+
+    /** Per-batch cost; divide by 50 for the per-message figure. */
+    @Benchmark
+    public void listenerBatchOf50() {
+        listener.handleBatch(batch);
+    }
+}
@@ -0,0 +1,79 @@
+package com.insurancemegacorp.ragmon.bench;
+
+import com.insurancemegacorp.ragmon.model.Event;
+import com.insurancemegacorp.ragmon.service.EventStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link EventStore} ingest at capacity: the store is filled before measuring, so every append also evicts.
+ * Four threads contend for the write lock, as concurrent AMQP consumers do.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class EventStoreIngestBenchmark {
+    private static final int BATCH = 100;
+
+    @State(Scope.Benchmark)
+    public static class Store {
+        @Param({"ring", "columnar"})
+        public String backend;
+
+        @Param({"10000"})
+        public int maxEvents;
+
+        EventStore store;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            store = new EventStore(Fixtures.properties(backend, maxEvents), List.of(), new SimpleMeterRegistry());
+            store.addAll(Arrays.asList(Fixtures.events(maxEvents, 50, 1)));
+        }
+    }
+
+    /** Each thread cycles through its own events; the store only copies fields out of them. */
+    @State(Scope.Thread)
+    public static class Source {
+        Event[] events;
+        List<List<Event>> batches;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            events = Fixtures.events(8192, 50, Thread.currentThread().threadId());
+            batches = new ArrayList<>();
+            for (int i = 0; i + BATCH <= events.length; i += BATCH) {
+                batches.add(Arrays.asList(Arrays.copyOfRange(events, i, i + BATCH)));
+            }
+        }
+
+        Event nextEvent() {
+            return events[next++ & (events.length - 1)];
+        }
+
+        List<Event> nextBatch() {
+            if (next >= batches.size()) next = 0;
+            return batches.get(next++);
+        }
+    }
+
+    @Benchmark
+    public void add(Store s, Source src) {
+        s.store.add(src.nextEvent());
+    }
+
+    /** Operations are batches of 100. */
+    @Benchmark
+    public void addAll(Store s, Source src) {
+        s.store.addAll(src.nextBatch());
+    }
+}
@@ -0,0 +1,85 @@
+package com.insurancemegacorp.ragmon.bench;
+
+import com.insurancemegacorp.ragmon.model.Event;
+import com.insurancemegacorp.ragmon.service.EventQuery;
+import com.insurancemegacorp.ragmon.service.EventStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read paths behind {@code /api/recent}, {@code /api/events} and {@code /api/metrics} over a full store.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventStoreQueryBenchmark {
+
+    @Param({"ring", "columnar"})
+    public String backend;
+
+    @Param({"100000"})
+    public int maxEvents;
+
+    private EventStore store;
+    private EventQuery page;
+    private EventQuery byInstance;
+    private EventQuery errorsInWindow;
+
+    @Setup
+    public void setUp() {
+        store = new EventStore(Fixtures.properties(backend, maxEvents), List.of(), new SimpleMeterRegistry());
+        Event[] events = Fixtures.events(maxEvents, 50, 7);
+        store.addAll(Arrays.asList(events));
+        String app = Fixtures.APPS[0];
+        long mid = events[events.length / 2].getTimestamp();
+        page = new EventQuery(null, null, null, null, null, null, null, null, 50);
+        byInstance = new EventQuery(app, Fixtures.instanceId(app, 3), null, null, null, null, null, null, 50);
+        errorsInWindow = new EventQuery(null, null, "ERROR", null, null, mid, null, null, null);
+    }
+
+    @Benchmark
+    public List<Event> recentEvents() {
+        return store.recentEvents();
+    }
+
+    @Benchmark
+    public List<Event> queryLatestPage() {
+        return store.query(page);
+    }
+
+    /** A selective filter: one instance out of 300, newest 50. */
+    @Benchmark
+    public List<Event> queryByInstance() {
+        return store.query(byInstance);
+    }
+
+    /** Maintained counters; independent of the number of retained events. */
+    @Benchmark
+    public Map<String, Long> metricsCountsByStatus() {
+        return store.metricsCountsByStatus();
+    }
+
+    @Benchmark
+    public Map<String, Long> countsByInstance() {
+        return store.countsByInstance();
+    }
+
+    /** A filtered count, which has to scan the retained window. */
+    @Benchmark
+    public Map<String, Long> countsByStatusScan() {
+        return store.countsByStatus(new EventQuery(Fixtures.APPS[1], null, null, null, null, null, null, null, null));
+    }
+
+    @Benchmark
+    public List<Event> queryErrorsInWindow() {
+        return store.query(errorsInWindow);
+    }
+}
@@ -0,0 +1,82 @@
+package com.insurancemegacorp.ragmon.bench;
+
+import com.insurancemegacorp.ragmon.config.RagmonProperties;
+import com.insurancemegacorp.ragmon.model.Event;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.SplittableRandom;
+
+/**
+ * Shared inputs: the sample messages from {@code docs/AMQP_MESSAGE_SCHEMA.md} as raw bytes, and synthetic
+ * {@link Event}s with the shape a real fleet produces (a handful of apps, many instances, mostly heartbeats).
+ */
+final class Fixtures {
+    static final String[] APPS = {"hdfsWatcher", "textProc", "embedProc", "ragQuery", "indexer", "chunker"};
+    static final String[] EVENTS = {"HEARTBEAT", "HEARTBEAT", "HEARTBEAT", "HEARTBEAT", "HEARTBEAT", "HEARTBEAT",
+            "FILE_PROCESSED", "FILE_PROCESSED", "INIT", "ERROR"};
+
+    private Fixtures() {}
+
+    static byte[] resource(String name) {
+        try (InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) throw new IllegalStateException("Missing fixture " + name);
+            return in.readAllBytes();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /** Properties sized for a benchmark; time-based eviction is pushed out so only the count bound applies. */
+    static RagmonProperties properties(String backend, int maxEvents) {
+        RagmonProperties props = new RagmonProperties();
+        props.getStream().setBackend(backend);
+        props.getStream().setMaxEvents(maxEvents);
+        props.getStream().setRetentionWindowSeconds(Integer.MAX_VALUE / 1000);
+        return props;
+    }
+
+    /** {@code n} events spread over {@code instancesPerApp} instances of each app, timestamped now. */
+    static Event[] events(int n, int instancesPerApp, long seed) {
+        SplittableRandom rnd = new SplittableRandom(seed);
+        long now = System.currentTimeMillis();
+        Event[] out = new Event[n];
+        for (int i = 0; i < n; i++) {
+            String app = APPS[rnd.nextInt(APPS.length)];
+            int instance = rnd.nextInt(instancesPerApp);
+            String type = EVENTS[rnd.nextInt(EVENTS.length)];
+            Event e = new Event();
+            e.setApp(app);
+            e.setStage("processing");
+            e.setEvent(type);
+            e.setInstanceId(instanceId(app, instance));
+            e.setTimestamp(now - (n - i));
+            e.setStatus("ERROR".equals(type) ? "ERROR" : "RUNNING");
+            e.setUrl("http://" + app.toLowerCase() + "-" + instance + ".apps.internal:8080");
+            e.setHostname(app.toLowerCase() + "-" + instance);
+            e.setPublicHostname(app.toLowerCase() + "-" + instance + ".apps.internal");
+            e.setUptime("0h " + (i % 60) + "m 0s");
+            e.setFilesProcessed((long) i);
+            e.setFilesTotal(100_000L);
+            e.setTotalChunks(i * 10L);
+            e.setProcessedChunks(i * 10L - rnd.nextInt(10));
+            e.setProcessingRate(rnd.nextDouble(0, 50));
+            e.setErrorCount((long) rnd.nextInt(5));
+            e.setMemoryUsedMB((double) (100 + rnd.nextInt(400)));
+            e.setPendingMessages((long) rnd.nextInt(20));
+            if ("FILE_PROCESSED".equals(type)) {
+                e.setFilename("data/input/file-" + i + ".txt");
+                e.setLatencyMs((long) rnd.nextInt(500));
+            } else if ("ERROR".equals(type)) {
+                e.setMessage("Failed to parse file: file-" + i + ".txt - Invalid format");
+            }
+            out[i] = e;
+        }
+        return out;
+    }
+
+    static String instanceId(String app, int instance) {
+        return app + "-" + (10_000 + instance) + "@host-" + instance + ".local";
+    }
+}
@@ -0,0 +1,76 @@
+package com.insurancemegacorp.ragmon.bench;
+
+import com.insurancemegacorp.ragmon.config.RagmonProperties;
+import com.insurancemegacorp.ragmon.service.EventStore;
+import com.insurancemegacorp.ragmon.service.InstanceRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heartbeat handling and {@code list()} on a registry of live instances. {@code list()} is served from a
+ * snapshot that is rebuilt only after a change, so the steady-state and after-update cases are measured apart.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InstanceRegistryBenchmark {
+
+    @Param({"100", "1000"})
+    public int instances;
+
+    private InstanceRegistry registry;
+    private String[] services;
+    private String[] ids;
+    private String[] urls;
+    private final Map<String, Object> meta = Map.of("processingStage", "processing", "inputMode", "cloud");
+    private int next;
+
+    @Setup
+    public void setUp() {
+        RagmonProperties props = Fixtures.properties("ring", 10_000);
+        MeterRegistry meters = new SimpleMeterRegistry();
+        registry = new InstanceRegistry(props.getInstances(), new EventStore(props, List.of(), meters), meters);
+        services = new String[instances];
+        ids = new String[instances];
+        urls = new String[instances];
+        for (int i = 0; i < instances; i++) {
+            services[i] = Fixtures.APPS[i % Fixtures.APPS.length];
+            ids[i] = Fixtures.instanceId(services[i], i);
+            urls[i] = "http://" + services[i].toLowerCase() + "-" + i + ".apps.internal:8080";
+            registry.updateFromMessage(services[i], ids[i], urls[i], "RUNNING", false, 1L, "1.0.0", meta);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        registry.close();
+    }
+
+    @Benchmark
+    public void heartbeat() {
+        int i = next++ % instances;
+        registry.updateFromMessage(services[i], ids[i], urls[i], "RUNNING", true, null, null, meta);
+    }
+
+    @Benchmark
+    public List<InstanceRegistry.Instance> list() {
+        return registry.list();
+    }
+
+    /** A change followed by a read, so the snapshot has to be rebuilt. */
+    @Benchmark
+    public List<InstanceRegistry.Instance> statusChangeThenList() {
+        int i = next++ % instances;
+        registry.updateFromMessage(services[i], ids[i], urls[i], (next & 1) == 0 ? "RUNNING" : "PROCESSING",
+                true, null, null, meta);
+        return registry.list();
+    }
+}
@@ -0,0 +1,52 @@
+package com.insurancemegacorp.ragmon.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurancemegacorp.ragmon.config.RagmonProperties;
+import com.insurancemegacorp.ragmon.model.Event;
+import com.insurancemegacorp.ragmon.service.EventStore;
+import com.insurancemegacorp.ragmon.web.SseFrames;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SSE frame encoding: the first subscriber pays for serialization, the rest hit the frame cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SseFramesBenchmark {
+
+    private SseFrames frames;
+    private Event[] events;
+    private Event cachedEvent;
+    private long seq;
+
+    @Setup
+    public void setUp() {
+        RagmonProperties props = Fixtures.properties("ring", 10_000);
+        frames = new SseFrames(new ObjectMapper(), props, new EventStore(props, List.of(), new SimpleMeterRegistry()));
+        events = Fixtures.events(1024, 50, 11);
+        cachedEvent = Fixtures.events(1, 1, 12)[0];
+        cachedEvent.setSeq(-1L);
+        seq = 0;
+    }
+
+    /** Every call is a new sequence number, so nothing is reused. */
+    @Benchmark
+    public byte[] encodeNew() {
+        Event e = events[(int) (seq & (events.length - 1))];
+        e.setSeq(seq++);
+        return frames.frame(e);
+    }
+
+    @Benchmark
+    public byte[] cachedFrame() {
+        return frames.frame(cachedEvent);
+    }
+}
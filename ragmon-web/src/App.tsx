@@ -1,4 +1,4 @@
-import { useEffect, useMemo, useState } from 'react'
+import { useCallback, useEffect, useMemo, useState } from 'react'
 import { BrowserRouter, Link, Route, Routes } from 'react-router-dom'
 import { useSharedSSE, type EventDto } from './lib/sse'
 
@@ -728,9 +728,25 @@ function Instances() {
       .then(setInstances)
       .catch(() => {})
     const es = new EventSource('/api/instances/stream', { withCredentials: true })
-    es.onmessage = (m) => {
-      try { setInstances(JSON.parse(m.data)) } catch {}
-    }
+    // Full list once per connection, then only the changes
+    es.addEventListener('snapshot', (m) => {
+      try { setInstances(JSON.parse((m as MessageEvent).data).instances) } catch {}
+    })
+    es.addEventListener('delta', (m) => {
+      try {
+        const d = JSON.parse((m as MessageEvent).data)
+        const same = (i: any) => i.service === d.service && i.instanceId === d.instanceId
+        setInstances(prev => {
+          switch (d.type) {
+            case 'ADDED': return [...prev.filter(i => !same(i)), d.instance]
+            case 'UPDATED': return prev.map(i => same(i) ? { ...i, ...d.fields } : i)
+            case 'STATUS': return prev.map(i => same(i) ? { ...i, status: d.status } : i)
+            case 'REMOVED': return prev.filter(i => !same(i))
+            default: return prev
+          }
+        })
+      } catch {}
+    })
     return () => { try { es.close() } catch {} }
   }, [])
   const groups = instances.reduce((acc: Record<string, any[]>, i) => {
@@ -918,14 +934,21 @@ function Settings() {
 
 function Shell() {
   const [recent, setRecent] = useState<EventDto[]>([])
-  const { connected } = useSharedSSE('/stream', { onEvent: (e) => setRecent(prev => [...prev.slice(-999), e]) })
-
-  useEffect(() => {
+  const loadRecent = useCallback(() => {
     fetch('/api/events/recent', { credentials: 'include' })
       .then(r => r.json())
       .then((data: EventDto[]) => setRecent(data))
       .catch(() => {})
   }, [])
+  // A reset means the stream skipped events it could not replay, so the list is reloaded rather than patched
+  const { connected } = useSharedSSE('/stream', {
+    onEvent: (e) => setRecent(prev => [...prev.slice(-999), e]),
+    onReset: loadRecent,
+  })
+
+  useEffect(() => {
+    loadRecent()
+  }, [loadRecent])
 
   return (
     <div className="h-screen flex flex-col">
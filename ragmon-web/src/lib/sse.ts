@@ -3,7 +3,7 @@ import { useEffect, useRef, useState } from 'react'
 export type EventDto = {
   app?: string
   stage?: string
-  event?: 'INIT' | 'HEARTBEAT' | 'FILE_PROCESSED'
+  event?: 'INIT' | 'HEARTBEAT' | 'FILE_PROCESSED' | 'ONLINE' | 'OFFLINE' | 'REMOVED'
   instanceId?: string
   docId?: string
   timestamp: number
@@ -28,6 +28,7 @@ export type EventDto = {
 
 let sharedES: EventSource | null = null
 let sharedListeners: Array<(e: EventDto) => void> = []
+let sharedResetListeners: Array<() => void> = []
 let sharedDebug: EventDto[] = []
 let sharedConnected = false
 let sharedError: string | null = null
@@ -35,10 +36,18 @@ let started = false
 let lastMessageAt = 0
 let reconnectDelayMs = 1000
 let missedChecks = 0
+// Id of the last event received, `<epoch>-<seq>`; sent on reconnect so the server replays what we missed
+let lastEventId: string | null = null
+
+function withLastEventId(url: string): string {
+  if (!lastEventId) return url
+  const sep = url.includes('?') ? '&' : '?'
+  return `${url}${sep}lastEventId=${encodeURIComponent(lastEventId)}`
+}
 
 function startEventSource(url: string, withCredentials: boolean) {
   if (sharedES) sharedES.close()
-  const es = new EventSource(url, { withCredentials })
+  const es = new EventSource(withLastEventId(url), { withCredentials })
   sharedES = es
   es.onopen = () => {
     sharedConnected = true
@@ -60,8 +69,23 @@ function startEventSource(url: string, withCredentials: boolean) {
     lastMessageAt = Date.now()
     missedChecks = 0
   })
+  es.addEventListener('reset', () => {
+    // Server could not replay the full gap (or restarted); start over from live and let views reload their state
+    lastEventId = null
+    for (const cb of sharedResetListeners) cb()
+  })
+  es.addEventListener('overflow', (msg) => {
+    // We fell too far behind; the server ends the stream and we resume from the last event it delivered
+    try {
+      const { resumeFrom } = JSON.parse((msg as MessageEvent).data) as { resumeFrom?: string }
+      if (resumeFrom != null) lastEventId = String(resumeFrom)
+    } catch {
+      // ignore
+    }
+  })
   es.onmessage = (msg) => {
     try {
+      if (msg.lastEventId) lastEventId = msg.lastEventId
       lastMessageAt = Date.now()
       missedChecks = 0
       const data = JSON.parse(msg.data) as EventDto
@@ -93,20 +117,27 @@ function ensureEventSource(url: string, withCredentials: boolean) {
   }
 }
 
-export function useSharedSSE(url: string, options?: { withCredentials?: boolean; onEvent?: (e: EventDto) => void }) {
+export function useSharedSSE(url: string, options?: { withCredentials?: boolean; onEvent?: (e: EventDto) => void; onReset?: () => void }) {
   const [connected, setConnected] = useState(sharedConnected)
   const [error, setError] = useState<string | null>(sharedError)
   const [debug, setDebug] = useState<EventDto[]>(sharedDebug)
   const listenerRef = useRef<(e: EventDto) => void>(() => {})
+  const resetRef = useRef<() => void>(() => {})
 
   useEffect(() => {
     if (options?.onEvent) listenerRef.current = options.onEvent
   }, [options?.onEvent])
 
+  useEffect(() => {
+    if (options?.onReset) resetRef.current = options.onReset
+  }, [options?.onReset])
+
   useEffect(() => {
     ensureEventSource(url, options?.withCredentials ?? false)
     const cb = (e: EventDto) => listenerRef.current && listenerRef.current(e)
     sharedListeners.push(cb)
+    const onReset = () => resetRef.current && resetRef.current()
+    sharedResetListeners.push(onReset)
     const id = setInterval(() => {
       setConnected(sharedConnected)
       setError(sharedError)
@@ -114,6 +145,7 @@ export function useSharedSSE(url: string, options?: { withCredentials?: boolean;
     }, 1000)
     return () => {
       sharedListeners = sharedListeners.filter(x => x !== cb)
+      sharedResetListeners = sharedResetListeners.filter(x => x !== onReset)
       clearInterval(id)
     }
   }, [url, options?.withCredentials])